@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public final class BenchmarkApplication {
+    public static final String FILE_DATABASE = "file";
+    public static final String MEMORY_DATABASE = "mem";
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String database, JdbcCounters counters) {
+        return start(database, counters, Map.of());
+    }
+
+    public static ConfigurableApplicationContext start(String database, JdbcCounters counters,
+                                                       Map<String, Object> properties) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("spring.datasource.url", databaseUrl(database));
+        defaults.put("spring.main.web-application-type", "none");
+        defaults.putAll(properties);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .initializers(applicationContext -> applicationContext.getBeanFactory().addBeanPostProcessor(counters))
+                .run(args(defaults));
+        verifyDatabase(context, String.valueOf(defaults.get("spring.datasource.url")));
+        return context;
+    }
+
+    public static ConfigurableApplicationContext startServer(String profile, Map<String, Object> properties) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("spring.profiles.active", profile);
+        defaults.put("server.port", 0);
+        defaults.putAll(properties);
+        return new SpringApplicationBuilder(FilmorateApplication.class).run(args(defaults));
+    }
+
+    public static String fileDatabasePath() {
+        return "./target/jmh-db/bench-" + UUID.randomUUID();
+    }
+
+    public static String databaseUrl(String database) {
+        if (FILE_DATABASE.equals(database)) {
+            return "jdbc:h2:file:" + fileDatabasePath();
+        }
+        return "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    }
+
+    private static void verifyDatabase(ConfigurableApplicationContext context, String expectedUrl) {
+        String url;
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            url = connection.getMetaData().getURL();
+        } catch (SQLException e) {
+            context.close();
+            throw new IllegalStateException("Не удалось проверить базу бенчмарка", e);
+        }
+        if (!expectedUrl.startsWith(url)) {
+            context.close();
+            throw new IllegalStateException("Бенчмарк подключился к " + url + " вместо " + expectedUrl);
+        }
+    }
+
+    private static String[] args(Map<String, Object> properties) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("spring.main.banner-mode", "off");
+        defaults.put("logging.level.root", "WARN");
+        defaults.put("logging.level.ru.yandex.practicum.filmorate", "ERROR");
+        defaults.putAll(properties);
+        return defaults.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+    }
+}
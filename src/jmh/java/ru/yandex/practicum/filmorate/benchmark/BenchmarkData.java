@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+public class BenchmarkData {
+    private static final String SQL_INSERT_USER = "INSERT INTO USERS(name, login, email, birthday) VALUES (?, ?, ?, ?)";
+    private static final String SQL_INSERT_FILM = "INSERT INTO FILMS(name, description, release_date, duration, rate, mpa_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SQL_INSERT_FILM_GENRE = "INSERT INTO FILMS_GENRES(film_id, genre_id) VALUES (?, ?)";
+    private static final String SQL_INSERT_LIKE = "INSERT INTO LIKES(film_id, user_id) VALUES (?, ?)";
+    private static final String SQL_INSERT_FRIENDSHIP = "INSERT INTO FRIENDSHIP(user_id, friend_id, status_id) VALUES (?, ?, 2)";
+    private static final int BATCH_SIZE = 5000;
+    private static final int GENRES = 6;
+    private static final int MPA = 5;
+    public static final String[] WORDS = {"любовь", "война", "мир", "ночь", "город", "тайна", "путь", "море",
+            "звезда", "дом", "последний", "герой", "остров", "зима", "тень", "король", "space", "night", "river", "ghost"};
+
+    private final int users;
+    private final int films;
+    private final int likesPerUser;
+    private final int friendsPerUser;
+    private final Random random = new Random(42);
+
+    public BenchmarkData(int users, int films, int likesPerUser, int friendsPerUser) {
+        this.users = users;
+        this.films = films;
+        this.likesPerUser = Math.min(likesPerUser, films);
+        this.friendsPerUser = Math.min(friendsPerUser, users - 1);
+    }
+
+    public void seed(String url) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "password");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                .execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        insertUsers(jdbcTemplate);
+        insertFilms(jdbcTemplate);
+        insertLikes(jdbcTemplate);
+        insertFriendships(jdbcTemplate);
+    }
+
+    private void insertUsers(JdbcTemplate jdbcTemplate) {
+        Batch batch = new Batch(jdbcTemplate, SQL_INSERT_USER);
+        for (int i = 1; i <= users; i++) {
+            batch.add("user" + i, "login" + i, "user" + i + "@mail.ru",
+                    Date.valueOf(LocalDate.of(1970, 1, 1).plusDays(random.nextInt(15000))));
+        }
+        batch.flush();
+    }
+
+    private void insertFilms(JdbcTemplate jdbcTemplate) {
+        Batch filmBatch = new Batch(jdbcTemplate, SQL_INSERT_FILM);
+        for (int i = 1; i <= films; i++) {
+            filmBatch.add(words(2) + " " + i, words(8),
+                    Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(25000))),
+                    60 + random.nextInt(120), random.nextInt(10), 1 + random.nextInt(MPA));
+        }
+        filmBatch.flush();
+        Batch genreBatch = new Batch(jdbcTemplate, SQL_INSERT_FILM_GENRE);
+        for (long filmId = 1; filmId <= films; filmId++) {
+            for (long genreId : pick(1 + random.nextInt(3), GENRES, 0L)) {
+                genreBatch.add(filmId, genreId);
+            }
+        }
+        genreBatch.flush();
+    }
+
+    private String words(int count) {
+        StringJoiner joiner = new StringJoiner(" ");
+        for (int i = 0; i < count; i++) {
+            joiner.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return joiner.toString();
+    }
+
+    private void insertLikes(JdbcTemplate jdbcTemplate) {
+        Batch batch = new Batch(jdbcTemplate, SQL_INSERT_LIKE);
+        for (long userId = 1; userId <= users; userId++) {
+            Set<Long> filmIds = new HashSet<>();
+            while (filmIds.size() < likesPerUser) {
+                double skew = random.nextDouble();
+                filmIds.add(1L + (long) (films * skew * skew));
+            }
+            for (Long filmId : filmIds) {
+                batch.add(filmId, userId);
+            }
+        }
+        batch.flush();
+    }
+
+    private void insertFriendships(JdbcTemplate jdbcTemplate) {
+        Batch batch = new Batch(jdbcTemplate, SQL_INSERT_FRIENDSHIP);
+        for (long userId = 1; userId <= users; userId++) {
+            for (long friendId : pick(friendsPerUser, users, userId)) {
+                batch.add(userId, friendId);
+            }
+        }
+        batch.flush();
+    }
+
+    private Set<Long> pick(int count, int bound, long excluded) {
+        Set<Long> ids = new HashSet<>();
+        while (ids.size() < count) {
+            long id = 1L + random.nextInt(bound);
+            if (id != excluded) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static class Batch {
+        private final JdbcTemplate jdbcTemplate;
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        private Batch(JdbcTemplate jdbcTemplate, String sql) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.sql = sql;
+        }
+
+        private void add(Object... row) {
+            rows.add(row);
+            if (rows.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+}
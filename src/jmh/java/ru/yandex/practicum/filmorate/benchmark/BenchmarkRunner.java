@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+public class BenchmarkRunner {
+    private static final String BASELINE_ARG = "--baseline=";
+    private static final String TOLERANCE_ARG = "--tolerance=";
+    private static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        String baseline = null;
+        double tolerance = 0.1;
+        List<String> jmhArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith(BASELINE_ARG)) {
+                baseline = arg.substring(BASELINE_ARG.length());
+            } else if (arg.startsWith(TOLERANCE_ARG)) {
+                tolerance = Double.parseDouble(arg.substring(TOLERANCE_ARG.length()));
+            } else {
+                jmhArgs.add(arg);
+            }
+        }
+
+        CommandLineOptions commandLine = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        String result = commandLine.getResult().orElse(DEFAULT_RESULT);
+        options.result(result);
+        new File(result).getAbsoluteFile().getParentFile().mkdirs();
+        new Runner(options.build()).run();
+        printParameterImpact(new File(result));
+
+        if (baseline != null && compare(new File(baseline), new File(result), tolerance) > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static int compare(File baseline, File current, double tolerance) throws IOException {
+        Map<String, JsonNode> baselineScores = readScores(baseline);
+        Map<String, JsonNode> currentScores = readScores(current);
+        int regressions = 0;
+        System.out.printf("%nСравнение с %s (допуск %.0f%%)%n", baseline, tolerance * 100);
+        for (Map.Entry<String, JsonNode> entry : currentScores.entrySet()) {
+            JsonNode before = baselineScores.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            double was = before.path("primaryMetric").path("score").asDouble();
+            double now = entry.getValue().path("primaryMetric").path("score").asDouble();
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().path("mode").asText());
+            boolean regressed = higherIsBetter ? now < was * (1 - tolerance) : now > was * (1 + tolerance);
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%s %s: %.3f -> %.3f %s%n", regressed ? "РЕГРЕССИЯ" : "ok", entry.getKey(), was, now,
+                    entry.getValue().path("primaryMetric").path("scoreUnit").asText());
+        }
+        return regressions;
+    }
+
+    private static void printParameterImpact(File result) throws IOException {
+        Map<String, Map<String, Map<String, List<Double>>>> scores = new TreeMap<>();
+        Map<String, String> units = new HashMap<>();
+        for (JsonNode node : new ObjectMapper().readTree(result)) {
+            String mode = node.path("mode").asText();
+            JsonNode metric = node.path("primaryMetric");
+            String key;
+            double score;
+            if ("thrpt".equals(mode)) {
+                key = node.path("benchmark").asText() + " thrpt";
+                score = metric.path("score").asDouble();
+            } else if ("sample".equals(mode)) {
+                key = node.path("benchmark").asText() + " p99";
+                score = metric.path("scorePercentiles").path("99.0").asDouble();
+            } else {
+                continue;
+            }
+            units.put(key, metric.path("scoreUnit").asText());
+            node.path("params").fields().forEachRemaining(param -> scores
+                    .computeIfAbsent(key, k -> new TreeMap<>())
+                    .computeIfAbsent(param.getKey(), k -> new TreeMap<>())
+                    .computeIfAbsent(param.getValue().asText(), k -> new ArrayList<>())
+                    .add(score));
+        }
+        List<String> lines = new ArrayList<>();
+        List<Double> spreads = new ArrayList<>();
+        scores.forEach((key, params) -> params.forEach((param, values) -> {
+            if (values.size() < 2) {
+                return;
+            }
+            StringBuilder line = new StringBuilder(key + " " + param + ":");
+            double min = Double.MAX_VALUE;
+            double max = 0;
+            for (Map.Entry<String, List<Double>> value : values.entrySet()) {
+                double mean = value.getValue().stream().mapToDouble(Double::doubleValue).average().orElse(0);
+                min = Math.min(min, mean);
+                max = Math.max(max, mean);
+                line.append(String.format(" %s=%.3f", value.getKey(), mean));
+            }
+            double spread = min > 0 ? (max - min) / min : 0;
+            line.append(String.format(" %s, разброс %.0f%%", units.get(key), spread * 100));
+            lines.add(line.toString());
+            spreads.add(spread);
+        }));
+        if (lines.isEmpty()) {
+            return;
+        }
+        Integer[] order = new Integer[lines.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(spreads::get, Comparator.reverseOrder()));
+        System.out.printf("%nВлияние параметров (среднее по остальным параметрам, по убыванию разброса)%n");
+        for (int i : order) {
+            System.out.println(lines.get(i));
+        }
+    }
+
+    private static Map<String, JsonNode> readScores(File file) throws IOException {
+        Map<String, JsonNode> scores = new LinkedHashMap<>();
+        for (JsonNode node : new ObjectMapper().readTree(file)) {
+            scores.put(node.path("benchmark").asText() + " " + node.path("mode").asText() + " " + node.path("params"),
+                    node);
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,159 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.mapper.FilmsGenresMapper;
+import ru.yandex.practicum.filmorate.mapper.GenreMapper;
+import ru.yandex.practicum.filmorate.mapper.MpaMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmGenre;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmWriteBenchmark {
+    private static final String SQL_INSERT_FILM = "INSERT INTO FILMS(name, description, release_date, duration, rate, mpa_id) " +
+            "values (?, ?, ?, ?, ?, ?)";
+    private static final String SQL_UPDATE_FILM = "UPDATE FILMS " +
+            "SET name = ?, description = ?, release_date = ?, duration = ? ,rate = ?, mpa_id = ? " +
+            "WHERE ID = ?";
+
+    @Param({BenchmarkApplication.FILE_DATABASE, BenchmarkApplication.MEMORY_DATABASE})
+    public String database;
+
+    @Param({"3"})
+    public int genresPerFilm;
+
+    private final JdbcCounters counters = new JdbcCounters();
+    private final AtomicLong operations = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private FilmService filmService;
+    private JdbcTemplate jdbcTemplate;
+    private Film updatableFilm;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(database, counters, Map.of("filmorate.events.enabled", false));
+        filmService = context.getBean(FilmService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        updatableFilm = filmService.createFilm(newFilm());
+        counters.reset();
+        operations.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(BenchmarkParams params) {
+        long ops = Math.max(1L, operations.get());
+        System.out.printf("%n%s [%s]: commits/op = %.2f, statements/op = %.2f%n", params.getBenchmark(), database,
+                (double) counters.getCommits() / ops, (double) counters.getStatements() / ops);
+        context.close();
+    }
+
+    @Benchmark
+    public Film createFilm() {
+        operations.incrementAndGet();
+        return filmService.createFilm(newFilm());
+    }
+
+    @Benchmark
+    public Film createFilmLegacy() {
+        operations.incrementAndGet();
+        Film film = newFilm();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(SQL_INSERT_FILM, new String[]{"id"});
+            stmt.setString(1, film.getName());
+            stmt.setString(2, film.getDescription());
+            stmt.setObject(3, film.getReleaseDate());
+            stmt.setLong(4, film.getDuration());
+            stmt.setLong(5, film.getRate());
+            stmt.setLong(6, film.getMpa().getId());
+            return stmt;
+        }, keyHolder);
+        film.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        for (Genre genre : film.getGenres()) {
+            jdbcTemplate.update("INSERT INTO films_genres(film_id, genre_id) VALUES (?, ?)", film.getId(), genre.getId());
+        }
+        return rereadDetails(film);
+    }
+
+    @Benchmark
+    public Film updateFilm() {
+        operations.incrementAndGet();
+        updatableFilm.setGenres(newGenres(operations.get()));
+        return filmService.updateFilm(updatableFilm);
+    }
+
+    @Benchmark
+    public Film updateFilmLegacy() {
+        operations.incrementAndGet();
+        Film film = updatableFilm;
+        film.setGenres(newGenres(operations.get()));
+        boolean exists = jdbcTemplate.query("SELECT * FROM FILMS", new FilmMapper()).stream()
+                .anyMatch(existing -> existing.getId().equals(film.getId()));
+        if (!exists) {
+            throw new IllegalStateException("Фильм не найден");
+        }
+        jdbcTemplate.update(SQL_UPDATE_FILM, film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration(), film.getRate(), film.getMpa().getId(), film.getId());
+        jdbcTemplate.update("DELETE FROM films_genres WHERE film_id = ?", film.getId());
+        for (Genre genre : film.getGenres()) {
+            jdbcTemplate.update("INSERT INTO films_genres(film_id, genre_id) VALUES (?, ?)", film.getId(), genre.getId());
+        }
+        return rereadDetails(film);
+    }
+
+    private Film rereadDetails(Film film) {
+        List<FilmGenre> filmGenres = jdbcTemplate.query("SELECT * FROM films_genres WHERE film_id = ?",
+                new FilmsGenresMapper(), film.getId());
+        HashSet<Genre> genres = new HashSet<>();
+        for (FilmGenre filmGenre : filmGenres) {
+            genres.add(jdbcTemplate.queryForObject("SELECT * FROM GENRES WHERE ID = ?", new GenreMapper(),
+                    filmGenre.getGenreId()));
+        }
+        film.setGenres(genres);
+        film.setMpa(jdbcTemplate.queryForObject("SELECT * FROM MPA WHERE ID = ?", new MpaMapper(),
+                film.getMpa().getId()));
+        return film;
+    }
+
+    private Film newFilm() {
+        return Film.builder()
+                .name("Benchmark film")
+                .description("Benchmark description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(7200L)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .genres(newGenres(0))
+                .build();
+    }
+
+    private HashSet<Genre> newGenres(long shift) {
+        HashSet<Genre> genres = new HashSet<>();
+        for (int i = 0; i < genresPerFilm; i++) {
+            genres.add(Genre.builder().id((shift + i) % 6 + 1).build());
+        }
+        return genres;
+    }
+}
@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class HttpLoadBenchmark {
+    private static final String FILM_JSON = "{\"name\":\"Нагрузочный фильм\",\"description\":\"Описание\"," +
+            "\"releaseDate\":\"2000-01-01\",\"duration\":100,\"rate\":4,\"mpa\":{\"id\":1},\"genres\":[{\"id\":1}]}";
+
+    @Param({"16"})
+    public int poolSize;
+
+    @Param({"65536"})
+    public int cacheSize;
+
+    @Param({"64"})
+    public int queryCacheSize;
+
+    @Param({"500"})
+    public int writeDelay;
+
+    @Param({"3"})
+    public int lockMode;
+
+    @Param({"10000"})
+    public int users;
+
+    @Param({"5000"})
+    public int films;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String path = BenchmarkApplication.fileDatabasePath();
+        new BenchmarkData(users, films, 20, 20).seed("jdbc:h2:file:" + path);
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("filmorate.h2.path", path);
+        properties.put("filmorate.h2.cache-size", cacheSize);
+        properties.put("filmorate.h2.query-cache-size", queryCacheSize);
+        properties.put("filmorate.h2.write-delay", writeDelay);
+        properties.put("filmorate.h2.lock-mode", lockMode);
+        properties.put("spring.datasource.hikari.maximum-pool-size", poolSize);
+        properties.put("spring.datasource.hikari.minimum-idle", poolSize);
+        context = BenchmarkApplication.startServer("prod", properties);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getFilm() throws IOException, InterruptedException {
+        return send(request("/films/" + randomFilmId()).GET());
+    }
+
+    @Benchmark
+    public int getPopularFilms() throws IOException, InterruptedException {
+        return send(request("/films/popular?count=10").GET());
+    }
+
+    @Benchmark
+    public int getUser() throws IOException, InterruptedException {
+        return send(request("/users/" + randomUserId()).GET());
+    }
+
+    @Benchmark
+    public int getFriends() throws IOException, InterruptedException {
+        return send(request("/users/" + randomUserId() + "/friends").GET());
+    }
+
+    @Benchmark
+    public int addLike() throws IOException, InterruptedException {
+        return send(request("/films/" + randomFilmId() + "/like/" + randomUserId() + "?status=true")
+                .PUT(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    @Benchmark
+    public int createFilm() throws IOException, InterruptedException {
+        return send(request("/films")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(FILM_JSON)));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private int send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(response.request().method() + " " + response.request().uri() + ": "
+                    + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    private long randomUserId() {
+        return 1L + ThreadLocalRandom.current().nextInt(users);
+    }
+
+    private long randomFilmId() {
+        return 1L + ThreadLocalRandom.current().nextInt(films);
+    }
+}
@@ -0,0 +1,92 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class JdbcCounters implements BeanPostProcessor {
+    private static final Set<String> WRITE_METHODS = Set.of("executeUpdate", "executeLargeUpdate", "executeBatch",
+            "executeLargeBatch", "execute");
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return proxy(DataSource.class, bean, (proxy, method, args) -> {
+                Object result = invoke(bean, method, args);
+                return result instanceof Connection ? wrapConnection((Connection) result) : result;
+            });
+        }
+        return bean;
+    }
+
+    public long getStatements() {
+        return statements.get();
+    }
+
+    public long getCommits() {
+        return commits.get();
+    }
+
+    public void reset() {
+        statements.set(0);
+        commits.set(0);
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            if ("commit".equals(method.getName())) {
+                commits.incrementAndGet();
+            }
+            Object result = invoke(connection, method, args);
+            if (result instanceof CallableStatement) {
+                return wrapStatement(CallableStatement.class, (Statement) result, connection);
+            }
+            if (result instanceof PreparedStatement) {
+                return wrapStatement(PreparedStatement.class, (Statement) result, connection);
+            }
+            if (result instanceof Statement) {
+                return wrapStatement(Statement.class, (Statement) result, connection);
+            }
+            return result;
+        });
+    }
+
+    private <T extends Statement> T wrapStatement(Class<T> type, Statement statement, Connection connection) {
+        return proxy(type, statement, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                statements.incrementAndGet();
+                if (WRITE_METHODS.contains(name) && connection.getAutoCommit()) {
+                    commits.incrementAndGet();
+                }
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
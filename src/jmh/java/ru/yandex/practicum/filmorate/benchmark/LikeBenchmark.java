@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.LikeStatus;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LikeBenchmark {
+    private FilmService filmService;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+        filmService = database.getBean(FilmService.class);
+    }
+
+    @Benchmark
+    public LikeStatus addLike(SeededDatabase database) {
+        return filmService.addLike(database.randomFilmId(), database.randomUserId());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public LikeStatus addLikeToHotFilm(SeededDatabase database) {
+        return filmService.addLike(1L, database.randomUserId());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public LikeStatus removeLikeFromHotFilm(SeededDatabase database) {
+        return filmService.removeLike(1L, database.randomUserId());
+    }
+
+    @Benchmark
+    public LikeStatus removeLike(SeededDatabase database) {
+        return filmService.removeLike(database.randomFilmId(), database.randomUserId());
+    }
+}
@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.mapper.FilmSummaryMapper;
+import ru.yandex.practicum.filmorate.mapper.UserMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.sql.ResultSetMetaData;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OperationsPerInvocation(MappingBenchmark.PAGE)
+@Fork(1)
+public class MappingBenchmark {
+    static final int PAGE = 1000;
+
+    private static final String SQL_LEGACY_FILMS_PAGE = "SELECT * FROM FILMS WHERE ID > ? ORDER BY ID LIMIT ?";
+    private static final String SQL_FILMS_PAGE = "SELECT " + FilmMapper.COLUMNS + " FROM FILMS " +
+            "WHERE ID > ? ORDER BY ID LIMIT ?";
+    private static final String SQL_FILM_SUMMARIES_PAGE = "SELECT " + FilmSummaryMapper.COLUMNS + " FROM FILMS " +
+            "WHERE ID > ? ORDER BY ID LIMIT ?";
+    private static final String SQL_LEGACY_USERS_PAGE = "SELECT * FROM USERS WHERE ID > ? ORDER BY ID LIMIT ?";
+    private static final String SQL_USERS_PAGE = "SELECT " + UserMapper.COLUMNS + " FROM USERS " +
+            "WHERE ID > ? ORDER BY ID LIMIT ?";
+
+    private static final RowMapper<Film> LEGACY_FILM_MAPPER = (rs, rowNum) -> Film.builder()
+            .id(rs.getLong("id"))
+            .name(rs.getString("name"))
+            .description(rs.getString("description"))
+            .duration(rs.getLong("duration"))
+            .releaseDate(rs.getObject("release_date", LocalDate.class))
+            .rate(rs.getLong("rate"))
+            .mpa(Mpa.builder().id(rs.getLong("mpa_id")).build())
+            .build();
+    private static final RowMapper<User> LEGACY_USER_MAPPER = (rs, rowNum) -> User.builder()
+            .id(rs.getLong("id"))
+            .email(rs.getString("email"))
+            .login(rs.getString("login"))
+            .name(rs.getString("name"))
+            .birthday(rs.getObject("birthday", LocalDate.class))
+            .build();
+
+    private JdbcTemplate jdbcTemplate;
+    private final FilmMapper filmMapper = new FilmMapper();
+    private final FilmSummaryMapper filmSummaryMapper = new FilmSummaryMapper();
+    private final UserMapper userMapper = new UserMapper();
+    private int films;
+    private int users;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+        jdbcTemplate = database.getBean(JdbcTemplate.class);
+        films = database.films;
+        users = database.users;
+        printRowSize("films SELECT *", SQL_LEGACY_FILMS_PAGE);
+        printRowSize("films projection", SQL_FILMS_PAGE);
+        printRowSize("films summary", SQL_FILM_SUMMARIES_PAGE);
+        printRowSize("users SELECT *", SQL_LEGACY_USERS_PAGE);
+        printRowSize("users projection", SQL_USERS_PAGE);
+    }
+
+    @Benchmark
+    public List<Film> legacyFilmsPage() {
+        return jdbcTemplate.query(SQL_LEGACY_FILMS_PAGE, LEGACY_FILM_MAPPER, randomAfterId(films), PAGE);
+    }
+
+    @Benchmark
+    public List<Film> filmsPage() {
+        return jdbcTemplate.query(SQL_FILMS_PAGE, filmMapper, randomAfterId(films), PAGE);
+    }
+
+    @Benchmark
+    public List<FilmSummary> filmSummariesPage() {
+        return jdbcTemplate.query(SQL_FILM_SUMMARIES_PAGE, filmSummaryMapper, randomAfterId(films), PAGE);
+    }
+
+    @Benchmark
+    public List<User> legacyUsersPage() {
+        return jdbcTemplate.query(SQL_LEGACY_USERS_PAGE, LEGACY_USER_MAPPER, randomAfterId(users), PAGE);
+    }
+
+    @Benchmark
+    public List<User> usersPage() {
+        return jdbcTemplate.query(SQL_USERS_PAGE, userMapper, randomAfterId(users), PAGE);
+    }
+
+    private long randomAfterId(int rows) {
+        return ThreadLocalRandom.current().nextInt(Math.max(1, rows - PAGE));
+    }
+
+    private void printRowSize(String name, String sql) {
+        long[] totals = new long[2];
+        jdbcTemplate.query(sql, rs -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                Object value = rs.getObject(column);
+                if (value instanceof String) {
+                    totals[0] += ((String) value).length() * 2L;
+                } else if (value != null) {
+                    totals[0] += Long.BYTES;
+                }
+            }
+            totals[1]++;
+        }, 0L, PAGE);
+        System.out.printf("%n%s: ~%d байт данных в строке%n", name, totals[0] / Math.max(1, totals[1]));
+    }
+}
@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.SearchField;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.FriendsStorage;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadBenchmark {
+    @Param({"10"})
+    public long popularCount;
+
+    private FilmStorage filmStorage;
+    private FilmService filmService;
+    private FriendsStorage friendsStorage;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+        filmStorage = database.getBean(FilmStorage.class);
+        filmService = database.getBean(FilmService.class);
+        friendsStorage = database.getBean(FriendsStorage.class);
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilms() {
+        return filmStorage.getPopularFilms(popularCount, null, null);
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilmsByGenreAndYear() {
+        return filmStorage.getPopularFilms(popularCount, 1L, 2000);
+    }
+
+    @Benchmark
+    public List<Film> searchFilms() {
+        return filmStorage.searchFilms("тайна остр", EnumSet.allOf(SearchField.class), 0, 20);
+    }
+
+    @Benchmark
+    public List<Film> getAllFilms() {
+        return filmService.getAllFilms();
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends(SeededDatabase database) {
+        return friendsStorage.getCommonFriends(database.randomUserId(), database.randomUserId());
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.FriendsStorage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecommendationBenchmark {
+    @Param({"10"})
+    public int limit;
+
+    private FilmStorage filmStorage;
+    private FriendsStorage friendsStorage;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+        filmStorage = database.getBean(FilmStorage.class);
+        friendsStorage = database.getBean(FriendsStorage.class);
+    }
+
+    @Benchmark
+    public List<Film> getRecommendedFilms(SeededDatabase database) {
+        return filmStorage.getRecommendedFilms(database.randomUserId(), limit);
+    }
+
+    @Benchmark
+    public List<User> getFriendRecommendations(SeededDatabase database) {
+        return friendsStorage.getFriendRecommendations(database.randomUserId(), limit);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+@State(Scope.Benchmark)
+public class SeededDatabase {
+    @Param({BenchmarkApplication.MEMORY_DATABASE})
+    public String database;
+
+    @Param({"10000"})
+    public int users;
+
+    @Param({"5000"})
+    public int films;
+
+    @Param({"20"})
+    public int likesPerUser;
+
+    @Param({"20"})
+    public int friendsPerUser;
+
+    private final JdbcCounters counters = new JdbcCounters();
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = BenchmarkApplication.databaseUrl(database);
+        new BenchmarkData(users, films, likesPerUser, friendsPerUser).seed(url);
+        context = BenchmarkApplication.start(database, counters, Map.of("spring.datasource.url", url));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public long randomUserId() {
+        return 1L + ThreadLocalRandom.current().nextInt(users);
+    }
+
+    public long randomFilmId() {
+        return 1L + ThreadLocalRandom.current().nextInt(films);
+    }
+
+    public long missingId() {
+        return Math.max(users, films) + 1L + ThreadLocalRandom.current().nextInt(1000);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+    private FilmStorage filmStorage;
+    private UserStorage userStorage;
+    private FilmService filmService;
+    private UserService userService;
+    private Film invalidFilm;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+        filmStorage = database.getBean(FilmStorage.class);
+        userStorage = database.getBean(UserStorage.class);
+        filmService = database.getBean(FilmService.class);
+        userService = database.getBean(UserService.class);
+        invalidFilm = Film.builder()
+                .name("Benchmark film")
+                .description("Benchmark description")
+                .releaseDate(LocalDate.of(1890, 1, 1))
+                .duration(7200L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build();
+    }
+
+    @Benchmark
+    public boolean filmExists(SeededDatabase database) {
+        return filmStorage.isFilmExist(database.randomFilmId());
+    }
+
+    @Benchmark
+    public Set<Long> usersExist(SeededDatabase database) {
+        return userStorage.getExistingUserIds(List.of(database.randomUserId(), database.randomUserId()));
+    }
+
+    @Benchmark
+    public Object missingFilm(SeededDatabase database) {
+        try {
+            return filmService.getFilm(database.missingId());
+        } catch (NotFoundException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object missingFriend(SeededDatabase database) {
+        try {
+            return userService.getCommonFriends(database.randomUserId(), database.missingId());
+        } catch (NotFoundException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object invalidFilm() {
+        try {
+            return filmService.createFilm(invalidFilm);
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.async")
+public class AsyncExecutionProperties {
+    private Mode mode = Mode.VIRTUAL;
+    private int poolSize = 32;
+    private int queueCapacity = 1000;
+
+    public enum Mode {
+        VIRTUAL,
+        POOL,
+        DIRECT
+    }
+}
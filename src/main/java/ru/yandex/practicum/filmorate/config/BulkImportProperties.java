@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.bulk")
+public class BulkImportProperties {
+    private int chunkSize = 1000;
+    private int maxReportedErrors = 1000;
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.cache.dictionaries")
+public class DictionaryCacheProperties {
+    private Duration expireAfterWrite = Duration.ofHours(1);
+    private Duration refreshAfterWrite = Duration.ofMinutes(10);
+}
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.events")
+public class DomainEventProperties {
+    private boolean enabled = true;
+    private int batchSize = 500;
+    private int partitions = 4;
+    private int maxAttempts = 3;
+    private Duration pollInterval = Duration.ofSeconds(1);
+}
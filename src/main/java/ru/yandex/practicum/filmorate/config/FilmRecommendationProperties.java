@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.films.recommendations")
+public class FilmRecommendationProperties {
+    private int neighbours = 50;
+    private int maxResults = 100;
+    private int likersPerFilmCap = 5000;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int parallelThreshold = 20000;
+    private boolean precomputeEnabled = false;
+    private int heavyUserLikes = 500;
+    private Duration precomputeInterval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.friends.recommendations")
+public class FriendRecommendationProperties {
+    private int fanOutCap = 1000;
+    private Duration timeBudget = Duration.ofMillis(50);
+    private int maxResults = 100;
+    private long cacheSize = 10000;
+    private Duration cacheTtl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.http.cache")
+public class HttpCacheProperties {
+    private Duration dictionariesMaxAge = Duration.ofHours(1);
+    private Duration dictionariesStaleWhileRevalidate = Duration.ofMinutes(10);
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.likes.counters")
+public class LikeCountersProperties {
+    private Duration rankingInterval = Duration.ofMillis(50);
+    private Duration reconcileInterval = Duration.ofSeconds(1);
+}
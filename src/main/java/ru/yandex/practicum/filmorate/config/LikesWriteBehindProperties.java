@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.likes.write-behind")
+public class LikesWriteBehindProperties {
+    private boolean enabled = false;
+    private boolean durableAck = false;
+    private int queueCapacity = 10000;
+    private int batchSize = 500;
+    private Duration flushInterval = Duration.ofMillis(100);
+    private Duration offerTimeout = Duration.ofMillis(50);
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.storage.memory")
+public class MemoryStorageProperties {
+    private String directory = "./db/memory";
+    private boolean fsync = true;
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+}
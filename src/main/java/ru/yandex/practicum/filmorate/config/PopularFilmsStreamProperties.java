@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.films.popular-stream")
+public class PopularFilmsStreamProperties {
+    private Duration window = Duration.ofMillis(500);
+    private int maxCount = 100;
+    private Duration timeout = Duration.ofMinutes(30);
+    private int senderThreads = 4;
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.DictionaryCacheStats;
+import ru.yandex.practicum.filmorate.service.DictionaryCacheService;
+
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/cache/dictionaries")
+public class DictionaryCacheController {
+    private final DictionaryCacheService dictionaryCacheService;
+
+    @GetMapping()
+    public Map<String, DictionaryCacheStats> getStats() {
+        return dictionaryCacheService.getStats();
+    }
+
+    @DeleteMapping()
+    public void invalidateAll() {
+        dictionaryCacheService.invalidateAll();
+    }
+}
@@ -2,12 +2,24 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.model.LikeStatus;
+import ru.yandex.practicum.filmorate.model.Page;
+import ru.yandex.practicum.filmorate.model.PopularFilmIds;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.PopularFilmsFeed;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -15,15 +27,59 @@ import java.util.List;
 @RequestMapping("/films")
 public class FilmController {
     private final FilmService filmService;
+    private final NdjsonWriter ndjsonWriter;
+    private final PopularFilmsFeed popularFilmsFeed;
 
     @GetMapping()
     public List<Film> getAllFilms() {
         return filmService.getAllFilms();
     }
 
+    @GetMapping(params = "limit")
+    public Page<Film> getFilmsPage(@RequestParam(required = false) Long cursor, @RequestParam Integer limit) {
+        return filmService.getFilmsPage(cursor, limit);
+    }
+
+    @GetMapping("/summaries")
+    public Page<FilmSummary> getFilmSummariesPage(@RequestParam(required = false) Long cursor,
+                                                  @RequestParam(defaultValue = "100") Integer limit) {
+        return filmService.getFilmSummariesPage(cursor, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamFilms() {
+        return out -> filmService.streamFilms(film -> ndjsonWriter.write(out, film));
+    }
+
+    @PostMapping(value = "/import", consumes = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    public ImportReport importFilms(InputStream body) {
+        return filmService.importFilms(body);
+    }
+
+    @GetMapping(value = "/likes/stream", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamLikes() {
+        return out -> filmService.streamLikes(like -> ndjsonWriter.write(out, like));
+    }
+
+    @PostMapping(value = "/likes/import", consumes = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    public ImportReport importLikes(InputStream body) {
+        return filmService.importLikes(body);
+    }
+
+    @GetMapping("/search")
+    public Page<Film> searchFilms(@RequestParam String query,
+                                  @RequestParam(defaultValue = "title,description") String by,
+                                  @RequestParam(required = false) Long cursor,
+                                  @RequestParam(defaultValue = "20") Integer limit) {
+        return filmService.searchFilms(query, by, cursor, limit);
+    }
+
     @GetMapping("/{id}")
-    public Film getFilm(@PathVariable long id) {
-        return filmService.getFilm(id);
+    public CompletableFuture<Film> getFilm(@PathVariable long id, WebRequest request) {
+        if (request.checkNotModified(filmService.getFilmETag(id))) {
+            return null;
+        }
+        return filmService.getFilmAsync(id);
     }
 
 
@@ -44,16 +100,54 @@ public class FilmController {
 
     @PutMapping("/{id}/like/{userId}")
     public List<User> addLike(@PathVariable long id, @PathVariable long userId) {
+        filmService.addLike(id, userId);
+        return filmService.getAllLikes(id);
+    }
+
+    @PutMapping(value = "/{id}/like/{userId}", params = "status=true")
+    public LikeStatus addLikeStatus(@PathVariable long id, @PathVariable long userId) {
         return filmService.addLike(id, userId);
     }
 
     @DeleteMapping("/{id}/like/{userId}")
     public List<User> removeLike(@PathVariable long id, @PathVariable long userId) {
+        filmService.removeLike(id, userId);
+        return filmService.getAllLikes(id);
+    }
+
+    @DeleteMapping(value = "/{id}/like/{userId}", params = "status=true")
+    public LikeStatus removeLikeStatus(@PathVariable long id, @PathVariable long userId) {
         return filmService.removeLike(id, userId);
     }
 
+    @GetMapping("/{id}/likes")
+    public Page<User> getLikes(@PathVariable long id,
+                               @RequestParam(required = false) Long cursor,
+                               @RequestParam(defaultValue = "100") Integer limit) {
+        return filmService.getLikes(id, cursor, limit);
+    }
+
     @GetMapping("/popular")
-    public List<Film> getPopularFilm(@RequestParam(defaultValue = "10") Long count) {
-        return filmService.getPopularFilms(count);
+    public CompletableFuture<List<Film>> getPopularFilm(@RequestParam(defaultValue = "10") Long count,
+                                     @RequestParam(required = false) Long genreId,
+                                     @RequestParam(required = false) Integer year,
+                                     WebRequest request) {
+        PopularFilmIds popularFilmIds = filmService.getPopularFilmIds(count, genreId, year);
+        if (request.checkNotModified(filmService.getPopularFilmsETag(popularFilmIds))) {
+            return null;
+        }
+        return filmService.getPopularFilmsAsync(popularFilmIds);
+    }
+
+    @GetMapping("/popular/summaries")
+    public List<FilmSummary> getPopularFilmSummaries(@RequestParam(defaultValue = "10") Long count,
+                                                     @RequestParam(required = false) Long genreId,
+                                                     @RequestParam(required = false) Integer year) {
+        return filmService.getPopularFilmSummaries(count, genreId, year);
+    }
+
+    @GetMapping(value = "/popular/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPopularFilms(@RequestParam(defaultValue = "10") Long count) {
+        return popularFilmsFeed.subscribe(count);
     }
 }
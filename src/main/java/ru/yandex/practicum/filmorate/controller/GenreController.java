@@ -2,15 +2,17 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.config.HttpCacheProperties;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.GenreService;
 
 import java.util.List;
-import java.util.Optional;
 
 @Slf4j
 @RestController
@@ -18,14 +20,29 @@ import java.util.Optional;
 @RequestMapping("/genres")
 public class GenreController {
     private final GenreService genreService;
+    private final HttpCacheProperties httpCacheProperties;
 
     @GetMapping()
-    public List<Genre> getAllGenres() {
-        return genreService.getAllGenres();
+    public ResponseEntity<List<Genre>> getAllGenres() {
+        List<Genre> genres = genreService.getAllGenres();
+        return ResponseEntity.ok()
+                .cacheControl(dictionaryCacheControl())
+                .eTag(Integer.toHexString(genres.hashCode()))
+                .body(genres);
     }
 
     @GetMapping("/{id}")
-    public Optional<Genre> getGenre(@PathVariable long id) {
-        return genreService.getGenre(id);
+    public ResponseEntity<Genre> getGenre(@PathVariable long id) {
+        Genre genre = genreService.getGenre(id).get();
+        return ResponseEntity.ok()
+                .cacheControl(dictionaryCacheControl())
+                .eTag(Integer.toHexString(genre.hashCode()))
+                .body(genre);
+    }
+
+    private CacheControl dictionaryCacheControl() {
+        return CacheControl.maxAge(httpCacheProperties.getDictionariesMaxAge())
+                .staleWhileRevalidate(httpCacheProperties.getDictionariesStaleWhileRevalidate())
+                .cachePublic();
     }
 }
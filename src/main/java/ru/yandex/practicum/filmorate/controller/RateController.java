@@ -2,15 +2,17 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.config.HttpCacheProperties;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.service.MpaService;
 
 import java.util.List;
-import java.util.Optional;
 
 @Slf4j
 @RestController
@@ -18,14 +20,29 @@ import java.util.Optional;
 @RequestMapping("/mpa")
 public class RateController {
     private final MpaService mpaService;
+    private final HttpCacheProperties httpCacheProperties;
 
     @GetMapping()
-    public List<Mpa> getAllMpa() {
-        return mpaService.getAllMpa();
+    public ResponseEntity<List<Mpa>> getAllMpa() {
+        List<Mpa> mpa = mpaService.getAllMpa();
+        return ResponseEntity.ok()
+                .cacheControl(dictionaryCacheControl())
+                .eTag(Integer.toHexString(mpa.hashCode()))
+                .body(mpa);
     }
 
     @GetMapping("/{id}")
-    public Optional<Mpa> getMpa(@PathVariable long id) {
-        return mpaService.getMpa(id);
+    public ResponseEntity<Mpa> getMpa(@PathVariable long id) {
+        Mpa mpa = mpaService.getMpa(id).get();
+        return ResponseEntity.ok()
+                .cacheControl(dictionaryCacheControl())
+                .eTag(Integer.toHexString(mpa.hashCode()))
+                .body(mpa);
+    }
+
+    private CacheControl dictionaryCacheControl() {
+        return CacheControl.maxAge(httpCacheProperties.getDictionariesMaxAge())
+                .staleWhileRevalidate(httpCacheProperties.getDictionariesStaleWhileRevalidate())
+                .cachePublic();
     }
 }
@@ -3,11 +3,18 @@ package ru.yandex.practicum.filmorate.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
+import java.io.InputStream;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -15,15 +22,45 @@ import java.util.Optional;
 @RequestMapping("/users")
 public class UserController {
     private final UserService userService;
+    private final FilmService filmService;
+    private final NdjsonWriter ndjsonWriter;
 
     @GetMapping()
     public List<User> getAllUsers() {
         return userService.getAllUsers();
     }
 
+    @GetMapping(params = "limit")
+    public Page<User> getUsersPage(@RequestParam(required = false) Long cursor, @RequestParam Integer limit) {
+        return userService.getUsersPage(cursor, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamUsers() {
+        return out -> userService.streamUsers(user -> ndjsonWriter.write(out, user));
+    }
+
+    @PostMapping(value = "/import", consumes = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    public ImportReport importUsers(InputStream body) {
+        return userService.importUsers(body);
+    }
+
+    @GetMapping(value = "/friends/stream", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamFriendships() {
+        return out -> userService.streamFriendships(friendship -> ndjsonWriter.write(out, friendship));
+    }
+
+    @PostMapping(value = "/friends/import", consumes = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    public ImportReport importFriendships(InputStream body) {
+        return userService.importFriendships(body);
+    }
+
     @GetMapping("/{id}")
-    public Optional<User> getUser(@PathVariable long id) {
-        return userService.getUser(id);
+    public CompletableFuture<User> getUser(@PathVariable long id, WebRequest request) {
+        if (request.checkNotModified(userService.getUserETag(id))) {
+            return null;
+        }
+        return userService.getUserAsync(id);
     }
 
     @PostMapping()
@@ -52,12 +89,23 @@ public class UserController {
     }
 
     @GetMapping("/{id}/friends")
-    public List<User> getFriends(@PathVariable long id) {
-        return userService.getFriends(id);
+    public CompletableFuture<List<User>> getFriends(@PathVariable long id) {
+        return userService.getFriendsAsync(id);
     }
 
     @GetMapping("/{id}/friends/common/{otherId}")
-    public List<User> getCommonFriends(@PathVariable long id, @PathVariable long otherId) {
-        return userService.getCommonFriends(id, otherId);
+    public CompletableFuture<List<User>> getCommonFriends(@PathVariable long id, @PathVariable long otherId) {
+        return userService.getCommonFriendsAsync(id, otherId);
+    }
+
+    @GetMapping("/{id}/friends/recommendations")
+    public List<User> getFriendRecommendations(@PathVariable long id,
+                                               @RequestParam(defaultValue = "10") Integer limit) {
+        return userService.getFriendRecommendations(id, limit);
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable long id, @RequestParam(defaultValue = "10") Integer limit) {
+        return filmService.getRecommendations(id, limit);
     }
 }
@@ -11,17 +11,18 @@ import java.time.LocalDate;
 
 @Component
 public class FilmMapper implements RowMapper<Film> {
+    public static final String COLUMNS = "id, name, description, duration, release_date, rate, mpa_id";
 
     @Override
     public Film mapRow(ResultSet rs, int rowNum) throws SQLException {
         return Film.builder()
-                .id(rs.getLong("id"))
-                .name(rs.getString("name"))
-                .description(rs.getString("description"))
-                .duration(rs.getLong("duration"))
-                .releaseDate(rs.getObject("release_date", LocalDate.class))
-                .rate(rs.getLong("rate"))
-                .mpa(Mpa.builder().id(rs.getLong("mpa_id")).build())
+                .id(rs.getLong(1))
+                .name(rs.getString(2))
+                .description(rs.getString(3))
+                .duration(rs.getLong(4))
+                .releaseDate(rs.getObject(5, LocalDate.class))
+                .rate(rs.getLong(6))
+                .mpa(Mpa.builder().id(rs.getLong(7)).build())
                 .build();
     }
 }
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.mapper;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+@Component
+public class FilmSummaryMapper implements RowMapper<FilmSummary> {
+    public static final String COLUMNS = "id, name, release_date";
+
+    @Override
+    public FilmSummary mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return FilmSummary.builder()
+                .id(rs.getLong(1))
+                .name(rs.getString(2))
+                .releaseDate(rs.getObject(3, LocalDate.class))
+                .build();
+    }
+}
@@ -9,13 +9,13 @@ import java.sql.SQLException;
 
 @Component
 public class FilmsGenresMapper implements RowMapper<FilmGenre> {
-
+    public static final String COLUMNS = "film_id, genre_id";
 
     @Override
     public FilmGenre mapRow(ResultSet rs, int rowNum) throws SQLException {
         return FilmGenre.builder()
-                .filmId(rs.getLong("film_id"))
-                .genreId(rs.getLong("genre_id"))
+                .filmId(rs.getLong(1))
+                .genreId(rs.getLong(2))
                 .build();
     }
 }
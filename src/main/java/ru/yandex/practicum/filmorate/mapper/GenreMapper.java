@@ -9,11 +9,13 @@ import java.sql.SQLException;
 
 @Component
 public class GenreMapper implements RowMapper<Genre> {
+    public static final String COLUMNS = "id, name";
+
     @Override
     public Genre mapRow(ResultSet rs, int rowNum) throws SQLException {
         return Genre.builder()
-                .id(rs.getLong("id"))
-                .name(rs.getString("name"))
+                .id(rs.getLong(1))
+                .name(rs.getString(2))
                 .build();
     }
 }
@@ -9,12 +9,14 @@ import java.sql.SQLException;
 
 @Component
 public class MpaMapper implements RowMapper<Mpa> {
+    public static final String COLUMNS = "id, name, description";
+
     @Override
     public Mpa mapRow(ResultSet rs, int rowNum) throws SQLException {
         return Mpa.builder()
-                .id(rs.getLong("id"))
-                .name(rs.getString("name"))
-                .description(rs.getString("description"))
+                .id(rs.getLong(1))
+                .name(rs.getString(2))
+                .description(rs.getString(3))
                 .build();
     }
 }
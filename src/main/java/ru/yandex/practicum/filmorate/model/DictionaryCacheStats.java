@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class DictionaryCacheStats {
+    private Long hitCount;
+    private Long missCount;
+    private Long loadCount;
+    private Long evictionCount;
+}
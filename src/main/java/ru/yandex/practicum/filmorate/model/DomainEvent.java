@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class DomainEvent {
+    private Long id;
+    private DomainEventType type;
+    private Long entityId;
+    private Long relatedId;
+}
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.model;
+
+public enum DomainEventType {
+    FILM_CREATED,
+    FILM_UPDATED,
+    FILM_DELETED,
+    USER_CREATED,
+    USER_UPDATED,
+    USER_DELETED,
+    LIKE_ADDED,
+    LIKE_REMOVED,
+    FRIENDSHIP_ADDED,
+    FRIENDSHIP_REMOVED
+}
@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class FilmRank {
+    private Integer rank;
+    private Long id;
+    private String name;
+    private Long likesCount;
+}
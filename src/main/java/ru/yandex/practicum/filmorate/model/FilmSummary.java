@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class FilmSummary {
+    private Long id;
+    private String name;
+    private LocalDate releaseDate;
+    private Long likesCount;
+}
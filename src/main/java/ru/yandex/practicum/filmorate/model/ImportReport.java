@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportReport {
+    private long processed;
+    private long imported;
+    private long failed;
+    private List<ImportError> errors = new ArrayList<>();
+}
@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class LikeStatus {
+    private Long filmId;
+    private Long userId;
+    private Boolean liked;
+    private Long likesCount;
+}
@@ -0,0 +1,11 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class Page<T> {
+    private final List<T> items;
+    private final Long nextCursor;
+}
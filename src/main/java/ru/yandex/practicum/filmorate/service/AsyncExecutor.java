@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.AsyncExecutionProperties;
+import ru.yandex.practicum.filmorate.exception.TooManyRequestsException;
+
+import javax.annotation.PreDestroy;
+import java.lang.reflect.InvocationTargetException;
+import java.text.MessageFormat;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class AsyncExecutor {
+    private final Executor executor;
+
+    public AsyncExecutor(AsyncExecutionProperties properties) {
+        this.executor = createExecutor(properties);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Очередь запросов к хранилищу переполнена");
+            throw new TooManyRequestsException("Сервер перегружен, повторите запрос позже");
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private static Executor createExecutor(AsyncExecutionProperties properties) {
+        switch (properties.getMode()) {
+            case DIRECT:
+                log.info("Запросы к хранилищу выполняются в потоке запроса");
+                return Runnable::run;
+            case VIRTUAL:
+                try {
+                    ExecutorService executor = (ExecutorService) Executors.class
+                            .getMethod("newVirtualThreadPerTaskExecutor")
+                            .invoke(null);
+                    log.info("Запросы к хранилищу выполняются в виртуальных потоках");
+                    return executor;
+                } catch (NoSuchMethodException e) {
+                    log.info(MessageFormat.format("Виртуальные потоки недоступны в JDK {0,number,#}, используется пул потоков",
+                            Runtime.version().feature()));
+                } catch (ReflectiveOperationException e) {
+                    Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                    log.warn(MessageFormat.format("Виртуальные потоки не включены в JDK {0,number,#}, используется пул потоков: {1}",
+                            Runtime.version().feature(), cause));
+                }
+                return createPool(properties);
+            default:
+                return createPool(properties);
+        }
+    }
+
+    private static ExecutorService createPool(AsyncExecutionProperties properties) {
+        AtomicInteger threads = new AtomicInteger();
+        log.info(MessageFormat.format("Запросы к хранилищу выполняются в пуле из {0,number,#} потоков",
+                properties.getPoolSize()));
+        return new ThreadPoolExecutor(properties.getPoolSize(), properties.getPoolSize(), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "storage-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.model.DictionaryCacheStats;
+import ru.yandex.practicum.filmorate.storage.CachedGenreStorage;
+import ru.yandex.practicum.filmorate.storage.CachedMpaStorage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DictionaryCacheService {
+    private static final String MPA_DICTIONARY = "mpa";
+    private static final String GENRES_DICTIONARY = "genres";
+    private final CachedMpaStorage cachedMpaStorage;
+    private final CachedGenreStorage cachedGenreStorage;
+
+    public Map<String, DictionaryCacheStats> getStats() {
+        Map<String, DictionaryCacheStats> stats = new LinkedHashMap<>();
+        stats.put(MPA_DICTIONARY, cachedMpaStorage.getStats());
+        stats.put(GENRES_DICTIONARY, cachedGenreStorage.getStats());
+        return stats;
+    }
+
+    public void invalidateAll() {
+        cachedMpaStorage.invalidate();
+        cachedGenreStorage.invalidate();
+    }
+}
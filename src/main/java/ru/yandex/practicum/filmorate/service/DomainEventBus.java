@@ -0,0 +1,169 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.DomainEventProperties;
+import ru.yandex.practicum.filmorate.model.DomainEvent;
+import ru.yandex.practicum.filmorate.storage.DomainEventOutbox;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DomainEventBus {
+    private final DomainEventOutbox outbox;
+    private final List<DomainEventConsumer> consumers;
+    private final DomainEventProperties properties;
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+    private ScheduledExecutorService dispatcher;
+    private ExecutorService partitions;
+    private final Map<Long, Progress> progress = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "domain-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger partitionNumber = new AtomicInteger();
+        partitions = Executors.newFixedThreadPool(properties.getPartitions(), runnable -> {
+            Thread thread = new Thread(runnable, "domain-events-" + partitionNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        outbox.setListener(this::requestDispatch);
+        long interval = properties.getPollInterval().toMillis();
+        dispatcher.scheduleWithFixedDelay(this::dispatch, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Шина доменных событий запущена, подписчиков: {}", consumers.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (dispatcher == null) {
+            return;
+        }
+        outbox.setListener(() -> {
+        });
+        dispatcher.shutdown();
+        try {
+            dispatcher.awaitTermination(properties.getPollInterval().toMillis() * 10, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        partitions.shutdown();
+    }
+
+    public void requestDispatch() {
+        if (dispatchRequested.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(this::dispatch);
+            } catch (RejectedExecutionException e) {
+                dispatchRequested.set(false);
+            }
+        }
+    }
+
+    public synchronized void dispatch() {
+        dispatchRequested.set(false);
+        try {
+            List<DomainEvent> events = outbox.getEvents(properties.getBatchSize());
+            while (!events.isEmpty()) {
+                List<Long> delivered = deliver(events);
+                outbox.deleteEvents(delivered);
+                delivered.forEach(progress::remove);
+                if (delivered.size() < events.size()) {
+                    return;
+                }
+                events = outbox.getEvents(properties.getBatchSize());
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось обработать доменные события", e);
+        }
+    }
+
+    private List<Long> deliver(List<DomainEvent> events) {
+        List<List<DomainEvent>> lanes = new ArrayList<>();
+        for (int i = 0; i < properties.getPartitions(); i++) {
+            lanes.add(new ArrayList<>());
+        }
+        events.forEach(event -> lanes.get(Math.floorMod(event.getEntityId().hashCode(), lanes.size())).add(event));
+        List<CompletableFuture<List<Long>>> deliveries = lanes.stream()
+                .filter(lane -> !lane.isEmpty())
+                .map(lane -> CompletableFuture.supplyAsync(() -> deliverLane(lane), partitions)
+                        .exceptionally(e -> {
+                            log.error("Не удалось доставить доменные события", e);
+                            return List.of();
+                        }))
+                .collect(Collectors.toList());
+        return deliveries.stream()
+                .flatMap(delivery -> delivery.join().stream())
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> deliverLane(List<DomainEvent> lane) {
+        for (DomainEventConsumer consumer : consumers) {
+            List<DomainEvent> pending = lane.stream()
+                    .filter(event -> !getProgress(event).delivered.contains(consumer))
+                    .collect(Collectors.toList());
+            if (pending.isEmpty()) {
+                continue;
+            }
+            try {
+                consumer.accept(pending);
+                pending.forEach(event -> getProgress(event).delivered.add(consumer));
+            } catch (RuntimeException e) {
+                deliverEach(consumer, pending);
+            }
+        }
+        return lane.stream()
+                .filter(event -> getProgress(event).delivered.size() == consumers.size())
+                .map(DomainEvent::getId)
+                .collect(Collectors.toList());
+    }
+
+    private void deliverEach(DomainEventConsumer consumer, List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            Progress eventProgress = getProgress(event);
+            try {
+                consumer.accept(List.of(event));
+                eventProgress.delivered.add(consumer);
+            } catch (RuntimeException e) {
+                String consumerName = consumer.getClass().getSimpleName();
+                int attempt = eventProgress.attempts.merge(consumer, 1, Integer::sum);
+                if (attempt < properties.getMaxAttempts()) {
+                    log.warn("Не удалось доставить событие {} подписчику {}, попытка {}",
+                            event.getId(), consumerName, attempt, e);
+                    return;
+                }
+                outbox.addDeadLetter(event, consumerName, String.valueOf(e));
+                eventProgress.delivered.add(consumer);
+                log.error("Событие {} не доставлено подписчику {} после {} попыток и перенесено в OUTBOX_DEAD_LETTER",
+                        event.getId(), consumerName, attempt, e);
+            }
+        }
+    }
+
+    private Progress getProgress(DomainEvent event) {
+        return progress.computeIfAbsent(event.getId(), id -> new Progress());
+    }
+
+    private static class Progress {
+        private final Set<DomainEventConsumer> delivered = ConcurrentHashMap.newKeySet();
+        private final Map<DomainEventConsumer, Integer> attempts = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.model.DomainEvent;
+
+import java.util.List;
+
+public interface DomainEventConsumer {
+    void accept(List<DomainEvent> events);
+}
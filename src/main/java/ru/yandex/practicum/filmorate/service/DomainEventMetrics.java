@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.DomainEvent;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class DomainEventMetrics implements DomainEventConsumer {
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void accept(List<DomainEvent> events) {
+        events.forEach(event -> meterRegistry.counter("filmorate.events", "type", event.getType().name()).increment());
+    }
+}
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmGenre;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.FilmsGenresStorage;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.MpaStorage;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmDetailsAssembler {
+    private static final int DETAILS_CHUNK_SIZE = 500;
+
+    private final FilmsGenresStorage filmsGenresStorage;
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+
+    public List<Film> fillDetails(List<Film> films) {
+        for (int from = 0; from < films.size(); from += DETAILS_CHUNK_SIZE) {
+            List<Film> chunk = films.subList(from, Math.min(from + DETAILS_CHUNK_SIZE, films.size()));
+            fillGenres(chunk);
+            fillMpa(chunk);
+        }
+        return films;
+    }
+
+    public Film fillDetails(Film film) {
+        fillDetails(List.of(film));
+        return film;
+    }
+
+    public Film fillDetails(Film film, List<FilmGenre> filmGenres) {
+        fillGenres(List.of(film), filmGenres);
+        fillMpa(List.of(film));
+        return film;
+    }
+
+    public Film fillDictionaryDetails(Film film) {
+        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
+            Set<Long> genreIds = film.getGenres().stream().map(Genre::getId).collect(Collectors.toSet());
+            HashSet<Genre> genres = new HashSet<>();
+            for (Genre genre : genreStorage.getGenresByIds(genreIds)) {
+                genres.add(Genre.builder().id(genre.getId()).name(genre.getName()).build());
+            }
+            film.setGenres(genres);
+        }
+        fillMpa(List.of(film));
+        return film;
+    }
+
+    private void fillGenres(List<Film> films) {
+        Set<Long> filmIds = films.stream().map(Film::getId).collect(Collectors.toSet());
+        fillGenres(films, filmsGenresStorage.getFilmsGenres(filmIds));
+    }
+
+    private void fillGenres(List<Film> films, List<FilmGenre> filmGenres) {
+        if (filmGenres.isEmpty()) {
+            return;
+        }
+
+        Set<Long> genreIds = filmGenres.stream().map(FilmGenre::getGenreId).collect(Collectors.toSet());
+        Map<Long, Genre> genres = genreStorage.getGenresByIds(genreIds).stream()
+                .collect(Collectors.toMap(Genre::getId, Function.identity()));
+
+        Map<Long, HashSet<Genre>> genresByFilm = new HashMap<>();
+        for (FilmGenre filmGenre : filmGenres) {
+            Genre genre = genres.get(filmGenre.getGenreId());
+            genresByFilm.computeIfAbsent(filmGenre.getFilmId(), id -> new HashSet<>())
+                    .add(Genre.builder().id(genre.getId()).name(genre.getName()).build());
+        }
+        for (Film film : films) {
+            HashSet<Genre> filmGenreSet = genresByFilm.get(film.getId());
+            if (filmGenreSet != null) {
+                film.setGenres(filmGenreSet);
+            }
+        }
+    }
+
+    private void fillMpa(List<Film> films) {
+        Set<Long> mpaIds = films.stream()
+                .map(Film::getMpa)
+                .filter(Objects::nonNull)
+                .map(Mpa::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Mpa> mpaById = mpaStorage.getMpaByIds(mpaIds).stream()
+                .collect(Collectors.toMap(Mpa::getId, Function.identity()));
+        for (Film film : films) {
+            if (film.getMpa() != null && mpaById.containsKey(film.getMpa().getId())) {
+                film.setMpa(mpaById.get(film.getMpa().getId()));
+            }
+        }
+    }
+}
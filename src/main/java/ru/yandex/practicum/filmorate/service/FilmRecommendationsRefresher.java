@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.DomainEvent;
+import ru.yandex.practicum.filmorate.model.DomainEventType;
+import ru.yandex.practicum.filmorate.storage.FilmRecommender;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class FilmRecommendationsRefresher implements DomainEventConsumer {
+    private final FilmRecommender filmRecommender;
+
+    @Override
+    public void accept(List<DomainEvent> events) {
+        Set<Long> userIds = events.stream()
+                .filter(event -> event.getType() == DomainEventType.LIKE_ADDED
+                        || event.getType() == DomainEventType.LIKE_REMOVED)
+                .map(DomainEvent::getRelatedId)
+                .collect(Collectors.toSet());
+        if (!userIds.isEmpty()) {
+            filmRecommender.refresh(userIds);
+        }
+    }
+}
@@ -3,16 +3,20 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.config.FilmRecommendationProperties;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.*;
 import ru.yandex.practicum.filmorate.storage.*;
 
+import java.io.InputStream;
 import java.text.MessageFormat;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -20,41 +24,210 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class FilmService {
     private final static LocalDate EARLIEST_DATE = LocalDate.of(1895, 12, 28);
+    private final static int MAX_PAGE_SIZE = 1000;
+    private final static int STREAM_CHUNK_SIZE = 500;
+    private final static int MAX_SEARCH_OFFSET = 10000;
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
-    private final MpaStorage mpaStorage;
     private final FilmsGenresStorage filmsGenresStorage;
     private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+    private final FilmDetailsAssembler filmDetailsAssembler;
+    private final FilmRecommendationProperties filmRecommendationProperties;
+    private final AsyncExecutor asyncExecutor;
+    private final NdjsonImporter ndjsonImporter;
+    private final TransactionTemplate transactionTemplate;
 
     public List<Film> getAllFilms() {
-        List<Film> filmListFromDb = filmStorage.getAllFilms();
-        List<Film> filmList = new ArrayList<>();
-        if (!filmListFromDb.isEmpty()) {
-            for (Film film : filmListFromDb) {
-                filmList.add(fillMpa(fillGenres(film)));
-            }
+        return filmDetailsAssembler.fillDetails(filmStorage.getAllFilms());
+    }
+
+    public Page<Film> getFilmsPage(Long cursor, Integer limit) {
+        validatePageLimit(limit);
+        List<Film> films = filmStorage.getFilmsPage(cursor == null ? 0L : cursor, limit + 1);
+        Long nextCursor = null;
+        if (films.size() > limit) {
+            films = new ArrayList<>(films.subList(0, limit));
+            nextCursor = films.get(limit - 1).getId();
         }
-        return filmList;
+        return new Page<>(filmDetailsAssembler.fillDetails(films), nextCursor);
     }
 
+    public Page<FilmSummary> getFilmSummariesPage(Long cursor, Integer limit) {
+        validatePageLimit(limit);
+        List<FilmSummary> summaries = filmStorage.getFilmSummariesPage(cursor == null ? 0L : cursor, limit + 1);
+        Long nextCursor = null;
+        if (summaries.size() > limit) {
+            summaries = new ArrayList<>(summaries.subList(0, limit));
+            nextCursor = summaries.get(limit - 1).getId();
+        }
+        return new Page<>(summaries, nextCursor);
+    }
+
+    public void streamFilms(Consumer<Film> consumer) {
+        List<Film> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        filmStorage.streamFilms(film -> {
+            chunk.add(film);
+            if (chunk.size() == STREAM_CHUNK_SIZE) {
+                filmDetailsAssembler.fillDetails(chunk).forEach(consumer);
+                chunk.clear();
+            }
+        });
+        filmDetailsAssembler.fillDetails(chunk).forEach(consumer);
+    }
+
+    public ImportReport importFilms(InputStream in) {
+        Set<Long> genreIds = genreStorage.getAllGenres().stream().map(Genre::getId).collect(Collectors.toSet());
+        Set<Long> mpaIds = mpaStorage.getAllMpa().stream().map(Mpa::getId).collect(Collectors.toSet());
+        return ndjsonImporter.importRows(in, Film.class, chunk -> {
+            List<Film> films = new ArrayList<>(chunk.getRows().size());
+            for (NdjsonImporter.Row<Film> row : chunk.getRows()) {
+                try {
+                    validateImported(row.getValue(), genreIds, mpaIds);
+                    films.add(row.getValue());
+                } catch (ValidationException | NotFoundException e) {
+                    chunk.fail(row, e.getMessage());
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                filmStorage.createFilms(films);
+                filmsGenresStorage.addFilmsGenres(films.stream()
+                        .filter(film -> film.getGenres() != null)
+                        .collect(Collectors.toMap(Film::getId, this::getGenreIds)));
+            });
+        });
+    }
+
+    public ImportReport importLikes(InputStream in) {
+        return ndjsonImporter.importRows(in, Like.class, chunk -> {
+            Set<Long> filmIds = filmStorage.getExistingFilmIds(chunk.getRows().stream()
+                    .map(row -> row.getValue().getFilmId())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet()));
+            Set<Long> userIds = userStorage.getExistingUserIds(chunk.getRows().stream()
+                    .map(row -> row.getValue().getUserId())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet()));
+            Map<Like, NdjsonImporter.Row<Like>> likes = new LinkedHashMap<>();
+            for (NdjsonImporter.Row<Like> row : chunk.getRows()) {
+                Like like = row.getValue();
+                if (like.getFilmId() == null || like.getUserId() == null) {
+                    chunk.fail(row, "Не указаны фильм или пользователь");
+                } else if (!filmIds.contains(like.getFilmId())) {
+                    chunk.fail(row, MessageFormat.format("Фильм c id: {0} не существует", like.getFilmId()));
+                } else if (!userIds.contains(like.getUserId())) {
+                    chunk.fail(row, MessageFormat.format("Пользователь c id: {0} не существует", like.getUserId()));
+                } else {
+                    likes.putIfAbsent(like, row);
+                }
+            }
+            filmStorage.addLikes(new ArrayList<>(likes.keySet()))
+                    .forEach(like -> chunk.fail(likes.get(like), "Фильм или пользователь были удалены во время импорта"));
+        });
+    }
+
+    public void streamLikes(Consumer<Like> consumer) {
+        filmStorage.streamLikes(consumer);
+    }
+
+    @Transactional
     public Film createFilm(Film film) {
         validate(film);
-        return fillMpa(fillGenres(addFilmGenres(filmStorage.createFilm(film))));
+        validateGenresExist(film);
+        return filmDetailsAssembler.fillDictionaryDetails(addFilmGenres(filmStorage.createFilm(film)));
     }
 
     public Film getFilm(Long id) {
         validateFilmExist(id);
-        return fillMpa(fillGenres(filmStorage.getFilm(id).get()));
+        return filmDetailsAssembler.fillDetails(filmStorage.getFilm(id).get());
+    }
+
+    public CompletableFuture<Film> getFilmAsync(Long id) {
+        CompletableFuture<Optional<Film>> film = asyncExecutor.supply(() -> filmStorage.getFilm(id));
+        CompletableFuture<List<FilmGenre>> filmGenres = asyncExecutor.supply(() -> filmsGenresStorage.getFilmGenres(id));
+        return film.thenCombine(filmGenres, (optionalFilm, genres) -> {
+            if (optionalFilm.isEmpty()) {
+                log.warn(MessageFormat.format("Фильм c id: {0} не существует", id));
+                throw new NotFoundException(MessageFormat.format("Фильм c id: {0} не существует", id));
+            }
+            return filmDetailsAssembler.fillDetails(optionalFilm.get(), genres);
+        });
+    }
+
+    public String getFilmETag(Long id) {
+        Optional<Long> version = filmStorage.getFilmVersion(id);
+        if (version.isEmpty()) {
+            log.warn(MessageFormat.format("Фильм c id: {0} не существует", id));
+            throw new NotFoundException(MessageFormat.format("Фильм c id: {0} не существует", id));
+        }
+        return MessageFormat.format("film-{0,number,#}-{1,number,#}", id, version.get());
+    }
+
+    public long getPopularFilmsVersion() {
+        return filmStorage.getPopularFilmsVersion();
+    }
+
+    public PopularFilmIds getPopularFilmIds(Long count, Long genreId, Integer year) {
+        if (genreId != null) {
+            validateGenreExist(genreId);
+        }
+        return filmStorage.getPopularFilmIds(count, genreId, year);
     }
 
-    public List<Film> getPopularFilms(Long count) {
-        return filmStorage.getPopularFilms(count);
+    public String getPopularFilmsETag(PopularFilmIds popularFilmIds) {
+        return MessageFormat.format("popular-{0,number,#}", popularFilmIds.getVersion());
+    }
+
+    public List<Film> getPopularFilms(Long count, Long genreId, Integer year) {
+        if (genreId != null) {
+            validateGenreExist(genreId);
+        }
+        return filmDetailsAssembler.fillDetails(filmStorage.getPopularFilms(count, genreId, year));
+    }
+
+    public List<FilmSummary> getPopularFilmSummaries(Long count, Long genreId, Integer year) {
+        if (genreId != null) {
+            validateGenreExist(genreId);
+        }
+        return filmStorage.getPopularFilmSummaries(count, genreId, year);
     }
 
+    public CompletableFuture<List<Film>> getPopularFilmsAsync(PopularFilmIds popularFilmIds) {
+        return asyncExecutor.supply(() ->
+                filmDetailsAssembler.fillDetails(filmStorage.getFilmsByIds(popularFilmIds.getIds())));
+    }
+
+    public List<Film> getRecommendations(Long userId, Integer limit) {
+        validateUserExist(userId);
+        validateRecommendationsLimit(limit);
+        return filmDetailsAssembler.fillDetails(filmStorage.getRecommendedFilms(userId, limit));
+    }
+
+    public Page<Film> searchFilms(String query, String by, Long cursor, Integer limit) {
+        validateSearchQuery(query);
+        Set<SearchField> fields = parseSearchFields(by);
+        validatePageLimit(limit);
+        validateSearchCursor(cursor);
+        int offset = cursor == null ? 0 : cursor.intValue();
+        List<Film> films = filmStorage.searchFilms(query, fields, offset, limit + 1);
+        Long nextCursor = null;
+        if (films.size() > limit) {
+            films = new ArrayList<>(films.subList(0, limit));
+            nextCursor = (long) offset + limit;
+        }
+        return new Page<>(filmDetailsAssembler.fillDetails(films), nextCursor);
+    }
+
+    @Transactional
     public Film updateFilm(Film film) {
         validate(film);
         validateFilmExist(film.getId());
-        return fillMpa(fillGenres(updateGenre(filmStorage.updateFilm(film))));
+        validateGenresExist(film);
+        Film updatedFilm = updateGenre(filmStorage.updateFilm(film));
+        if (updatedFilm.getGenres() == null) {
+            return filmDetailsAssembler.fillDetails(updatedFilm);
+        }
+        return filmDetailsAssembler.fillDictionaryDetails(updatedFilm);
     }
 
     public void deleteFilm(Long id) {
@@ -62,18 +235,35 @@ public class FilmService {
         filmStorage.deleteFilm(id);
     }
 
-    public List<User> addLike(Long id, Long userId) {
+    public LikeStatus addLike(Long id, Long userId) {
         validateFilmExist(id);
         validateUserExist(userId);
         return filmStorage.addLike(id, userId);
     }
 
-    public List<User> removeLike(Long id, Long userId) {
+    public LikeStatus removeLike(Long id, Long userId) {
         validateFilmExist(id);
         validateUserExist(userId);
         return filmStorage.removeLike(id, userId);
     }
 
+    public List<User> getAllLikes(Long id) {
+        validateFilmExist(id);
+        return filmStorage.getLikes(id);
+    }
+
+    public Page<User> getLikes(Long id, Long cursor, Integer limit) {
+        validateFilmExist(id);
+        validatePageLimit(limit);
+        List<User> users = filmStorage.getLikesPage(id, cursor == null ? 0L : cursor, limit + 1);
+        Long nextCursor = null;
+        if (users.size() > limit) {
+            users = new ArrayList<>(users.subList(0, limit));
+            nextCursor = users.get(limit - 1).getId();
+        }
+        return new Page<>(users, nextCursor);
+    }
+
     private void validate(Film film) {
         validateNotNull(film);
         validateName(film);
@@ -82,6 +272,67 @@ public class FilmService {
         validateDuration(film);
     }
 
+    private void validateImported(Film film, Set<Long> genreIds, Set<Long> mpaIds) {
+        validateNotNull(film);
+        if (film.getName() == null || film.getDescription() == null || film.getReleaseDate() == null
+                || film.getDuration() == null || film.getMpa() == null || film.getMpa().getId() == null) {
+            throw new ValidationException("Не заполнены обязательные поля фильма");
+        }
+        validate(film);
+        if (!mpaIds.contains(film.getMpa().getId())) {
+            throw new NotFoundException(MessageFormat.format("Рейтинг c id: {0} не существует", film.getMpa().getId()));
+        }
+        if (film.getGenres() != null) {
+            for (Genre genre : film.getGenres()) {
+                if (!genreIds.contains(genre.getId())) {
+                    throw new NotFoundException(MessageFormat.format("Жанр c id: {0} не существует", genre.getId()));
+                }
+            }
+        }
+    }
+
+    private void validatePageLimit(Integer limit) {
+        if (limit == null || limit <= 0 || limit > MAX_PAGE_SIZE) {
+            log.warn(MessageFormat.format("Размер страницы должен быть от 1 до {0,number,#}", MAX_PAGE_SIZE));
+            throw new ValidationException(MessageFormat.format("Размер страницы должен быть от 1 до {0,number,#}", MAX_PAGE_SIZE));
+        }
+    }
+
+    private void validateSearchQuery(String query) {
+        if (query == null || query.isBlank()) {
+            log.warn("Поисковый запрос не может быть пустым");
+            throw new ValidationException("Поисковый запрос не может быть пустым");
+        }
+    }
+
+    private void validateSearchCursor(Long cursor) {
+        if (cursor != null && (cursor < 0 || cursor > MAX_SEARCH_OFFSET)) {
+            log.warn(MessageFormat.format("Курсор поиска должен быть от 0 до {0,number,#}", MAX_SEARCH_OFFSET));
+            throw new ValidationException(MessageFormat.format("Курсор поиска должен быть от 0 до {0,number,#}", MAX_SEARCH_OFFSET));
+        }
+    }
+
+    private Set<SearchField> parseSearchFields(String by) {
+        Set<SearchField> fields = EnumSet.noneOf(SearchField.class);
+        for (String field : by.split(",")) {
+            String name = field.trim().toUpperCase(Locale.ROOT);
+            if (Arrays.stream(SearchField.values()).noneMatch(value -> value.name().equals(name))) {
+                log.warn(MessageFormat.format("Неизвестное поле поиска: {0}", field));
+                throw new ValidationException(MessageFormat.format("Неизвестное поле поиска: {0}", field));
+            }
+            fields.add(SearchField.valueOf(name));
+        }
+        return fields;
+    }
+
+    private void validateRecommendationsLimit(Integer limit) {
+        int maxResults = filmRecommendationProperties.getMaxResults();
+        if (limit == null || limit <= 0 || limit > maxResults) {
+            log.warn(MessageFormat.format("Количество рекомендаций должно быть от 1 до {0,number,#}", maxResults));
+            throw new ValidationException(MessageFormat.format("Количество рекомендаций должно быть от 1 до {0,number,#}", maxResults));
+        }
+    }
+
     private void validateNotNull(Film film) {
         if (film == null) {
             log.warn("Фильм не может быть null");
@@ -90,23 +341,40 @@ public class FilmService {
     }
 
     private void validateFilmExist(Long id) {
-        boolean isContainsId = filmStorage.getAllFilms().stream().map(Film::getId)
-                .collect(Collectors.toList()).contains(id);
-        if (!isContainsId) {
+        if (!filmStorage.isFilmExist(id)) {
             log.warn(MessageFormat.format("Фильм c id: {0} не существует", id));
             throw new NotFoundException(MessageFormat.format("Фильм c id: {0} не существует", id));
         }
     }
 
     private void validateUserExist(Long userId) {
-        boolean isContainsId = userStorage.getAllUsers().stream().map(User::getId)
-                .collect(Collectors.toList()).contains(userId);
-        if (!isContainsId) {
+        if (!userStorage.isUserExist(userId)) {
             log.warn(MessageFormat.format("Пользователь c id: {0} не существует", userId));
             throw new NotFoundException(MessageFormat.format("Пользователь c id: {0} не существует", userId));
         }
     }
 
+    private void validateGenreExist(Long genreId) {
+        if (!genreStorage.isGenreExist(genreId)) {
+            log.warn(MessageFormat.format("Жанр c id: {0} не существует", genreId));
+            throw new NotFoundException(MessageFormat.format("Жанр c id: {0} не существует", genreId));
+        }
+    }
+
+    private void validateGenresExist(Film film) {
+        if (film.getGenres() == null || film.getGenres().isEmpty()) {
+            return;
+        }
+        Set<Long> genreIds = film.getGenres().stream().map(Genre::getId).collect(Collectors.toSet());
+        Set<Long> existingIds = genreStorage.getExistingGenreIds(genreIds);
+        for (Long genreId : genreIds) {
+            if (!existingIds.contains(genreId)) {
+                log.warn(MessageFormat.format("Жанр c id: {0} не существует", genreId));
+                throw new NotFoundException(MessageFormat.format("Жанр c id: {0} не существует", genreId));
+            }
+        }
+    }
+
     private void validateName(Film film) {
         if (film.getName() == null | film.getName().isEmpty()) {
             log.warn("Название не может быть пустым");
@@ -135,46 +403,21 @@ public class FilmService {
         }
     }
 
-    private Film fillMpa(Film film) {
-        if (film.getMpa() != null) {
-            Mpa mpa = mpaStorage.getMpa(film.getMpa().getId()).get();
-            film.setMpa(mpa);
-        }
-        return film;
-    }
-
-    private Film fillGenres(Film film) {
-        List<FilmGenre> filmGenres = filmsGenresStorage.getFilmGenres(film.getId());
-
-        if (!filmGenres.isEmpty()) {
-            HashSet<Genre> genres = new HashSet<>();
-            for (FilmGenre filmGenre : filmGenres) {
-                Genre genre = genreStorage.getGenre(filmGenre.getGenreId()).get();
-                genres.add(Genre.builder().id(genre.getId()).name(genre.getName()).build());
-            }
-            film.setGenres(genres);
-        }
-        return film;
-    }
-
     private Film addFilmGenres(Film film) {
-        HashSet<Genre> genres = film.getGenres();
-        if (genres != null) {
-            for (Genre genre : genres) {
-                filmsGenresStorage.addFilmGenre(film.getId(), genre.getId());
-            }
+        if (film.getGenres() != null) {
+            filmsGenresStorage.addFilmGenres(film.getId(), getGenreIds(film));
         }
         return film;
     }
 
     private Film updateGenre(Film film) {
-        HashSet<Genre> genres = film.getGenres();
-        if (genres != null) {
-            filmsGenresStorage.removeFilmGenres(film.getId());
-            for (Genre genre : genres) {
-                filmsGenresStorage.addFilmGenre(film.getId(), genre.getId());
-            }
+        if (film.getGenres() != null) {
+            filmsGenresStorage.setFilmGenres(film.getId(), getGenreIds(film));
         }
         return film;
     }
+
+    private Set<Long> getGenreIds(Film film) {
+        return film.getGenres().stream().map(Genre::getId).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
 }
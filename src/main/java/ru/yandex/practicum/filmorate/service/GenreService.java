@@ -10,7 +10,6 @@ import ru.yandex.practicum.filmorate.storage.GenreStorage;
 import java.text.MessageFormat;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -28,10 +27,7 @@ public class GenreService {
     }
 
     private void validateGenreExist(Long id) {
-        boolean isContainsId = genreStorage.getAllGenres().stream()
-                .map(Genre::getId)
-                .collect(Collectors.toList()).contains(id);
-        if (!isContainsId) {
+        if (!genreStorage.isGenreExist(id)) {
             log.warn(MessageFormat.format("Жанр c id: {0} не существует", id));
             throw new NotFoundException(MessageFormat.format("Жанр c id: {0} не существует", id));
         }
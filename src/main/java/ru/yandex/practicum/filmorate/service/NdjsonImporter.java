@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.BulkImportProperties;
+import ru.yandex.practicum.filmorate.model.ImportError;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NdjsonImporter {
+    private final ObjectMapper objectMapper;
+    private final BulkImportProperties bulkImportProperties;
+
+    public <T> ImportReport importRows(InputStream in, Class<T> type, Consumer<Chunk<T>> writer) {
+        ImportReport report = new ImportReport();
+        Chunk<T> chunk = new Chunk<>(report, bulkImportProperties.getMaxReportedErrors());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.setProcessed(report.getProcessed() + 1);
+                try {
+                    T value = objectMapper.readValue(line, type);
+                    if (value == null) {
+                        chunk.fail(lineNumber, "Некорректная строка: ожидается объект, получен null");
+                    } else {
+                        chunk.rows.add(new Row<>(lineNumber, value));
+                    }
+                } catch (JsonProcessingException e) {
+                    chunk.fail(lineNumber, MessageFormat.format("Некорректная строка: {0}", e.getOriginalMessage()));
+                }
+                if (chunk.rows.size() == bulkImportProperties.getChunkSize()) {
+                    write(chunk, writer);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        write(chunk, writer);
+        report.getErrors().sort(Comparator.comparingLong(ImportError::getLine));
+        log.info(MessageFormat.format("Импорт завершен: обработано {0,number,#}, загружено {1,number,#}, ошибок {2,number,#}",
+                report.getProcessed(), report.getImported(), report.getFailed()));
+        return report;
+    }
+
+    private <T> void write(Chunk<T> chunk, Consumer<Chunk<T>> writer) {
+        if (chunk.rows.isEmpty()) {
+            return;
+        }
+        try {
+            writer.accept(chunk);
+        } catch (RuntimeException e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn(MessageFormat.format("Не удалось записать пакет строк {0,number,#}-{1,number,#}: {2}",
+                    chunk.rows.get(0).getLine(), chunk.rows.get(chunk.rows.size() - 1).getLine(), message));
+            chunk.rows.forEach(row -> chunk.fail(row, MessageFormat.format("Ошибка записи: {0}", message)));
+        }
+        chunk.report.setImported(chunk.report.getImported() + chunk.rows.size() - chunk.failedLines.size());
+        chunk.rows.clear();
+        chunk.failedLines.clear();
+    }
+
+    @Data
+    public static class Row<T> {
+        private final long line;
+        private final T value;
+    }
+
+    public static class Chunk<T> {
+        private final List<Row<T>> rows = new ArrayList<>();
+        private final Set<Long> failedLines = new HashSet<>();
+        private final ImportReport report;
+        private final int maxReportedErrors;
+
+        private Chunk(ImportReport report, int maxReportedErrors) {
+            this.report = report;
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        public List<Row<T>> getRows() {
+            return rows;
+        }
+
+        public void fail(Row<T> row, String message) {
+            if (failedLines.add(row.getLine())) {
+                fail(row.getLine(), message);
+            }
+        }
+
+        private void fail(long line, String message) {
+            report.setFailed(report.getFailed() + 1);
+            if (report.getErrors().size() < maxReportedErrors) {
+                report.getErrors().add(new ImportError(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.config.PopularFilmsStreamProperties;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.FilmRank;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.PopularFilmsDiff;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PopularFilmsFeed {
+    private static final String EVENT_NAME = "popular";
+
+    private final FilmService filmService;
+    private final PopularFilmsStreamProperties properties;
+    private final Map<Long, Group> groups = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService senders;
+    private long publishedVersion = -1L;
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "popular-films-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger senderNumber = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(properties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "popular-films-feed-sender-" + senderNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long window = properties.getWindow().toMillis();
+        scheduler.scheduleWithFixedDelay(this::publish, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        groups.values().forEach(group -> group.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    public SseEmitter subscribe(Long count) {
+        if (count == null || count <= 0 || count > properties.getMaxCount()) {
+            log.warn(MessageFormat.format("Размер рейтинга должен быть от 1 до {0,number,#}", properties.getMaxCount()));
+            throw new ValidationException(MessageFormat.format("Размер рейтинга должен быть от 1 до {0,number,#}",
+                    properties.getMaxCount()));
+        }
+        Subscriber subscriber = new Subscriber(new SseEmitter(properties.getTimeout().toMillis()));
+        while (true) {
+            Group group = groups.computeIfAbsent(count, Group::new);
+            Map<Long, FilmRank> top = group.ranks == null
+                    ? toRanks(filmService.getPopularFilmSummaries(count, null, null), count)
+                    : null;
+            PopularFilmsDiff snapshot;
+            synchronized (group) {
+                if (group.closed) {
+                    continue;
+                }
+                if (group.ranks == null) {
+                    group.ranks = top;
+                }
+                group.subscribers.add(subscriber);
+                snapshot = diff(Map.of(), group.ranks);
+            }
+            SseEmitter emitter = subscriber.emitter;
+            emitter.onCompletion(() -> unsubscribe(group, subscriber));
+            emitter.onTimeout(() -> unsubscribe(group, subscriber));
+            emitter.onError(e -> unsubscribe(group, subscriber));
+            send(group, subscriber, snapshot);
+            subscriber.subscribed.complete(null);
+            log.debug(MessageFormat.format("Новый подписчик на рейтинг из {0,number,#} фильмов", count));
+            return emitter;
+        }
+    }
+
+    public void publish() {
+        if (groups.isEmpty()) {
+            return;
+        }
+        try {
+            long rankingVersion = filmService.getPopularFilmsVersion();
+            if (rankingVersion == publishedVersion) {
+                return;
+            }
+            long maxCount = groups.keySet().stream().mapToLong(Long::longValue).max().orElse(0L);
+            List<FilmSummary> top = filmService.getPopularFilmSummaries(maxCount, null, null);
+            groups.values().forEach(group -> group.publish(top));
+            publishedVersion = rankingVersion;
+        } catch (RuntimeException e) {
+            log.error("Не удалось разослать изменения рейтинга популярных фильмов", e);
+        }
+    }
+
+    private void unsubscribe(Group group, Subscriber subscriber) {
+        synchronized (group) {
+            group.subscribers.remove(subscriber);
+            if (group.subscribers.isEmpty() && !group.closed) {
+                group.closed = true;
+                groups.remove(group.count, group);
+            }
+        }
+    }
+
+    private void send(Group group, Subscriber subscriber, PopularFilmsDiff diff) {
+        try {
+            subscriber.emitter.send(SseEmitter.event()
+                    .id(String.valueOf(diff.getVersion()))
+                    .name(EVENT_NAME)
+                    .data(diff, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(group, subscriber);
+        }
+    }
+
+    private PopularFilmsDiff diff(Map<Long, FilmRank> previous, Map<Long, FilmRank> current) {
+        List<FilmRank> changedRanks = new ArrayList<>();
+        current.forEach((filmId, rank) -> {
+            if (!rank.equals(previous.get(filmId))) {
+                changedRanks.add(rank);
+            }
+        });
+        List<Long> removed = new ArrayList<>();
+        previous.keySet().forEach(filmId -> {
+            if (!current.containsKey(filmId)) {
+                removed.add(filmId);
+            }
+        });
+        return PopularFilmsDiff.builder()
+                .version(version.incrementAndGet())
+                .changed(changedRanks)
+                .removed(removed)
+                .build();
+    }
+
+    private static Map<Long, FilmRank> toRanks(List<FilmSummary> top, long count) {
+        Map<Long, FilmRank> ranks = new LinkedHashMap<>();
+        for (int i = 0; i < top.size() && i < count; i++) {
+            FilmSummary film = top.get(i);
+            ranks.put(film.getId(), FilmRank.builder()
+                    .rank(i + 1)
+                    .id(film.getId())
+                    .name(film.getName())
+                    .likesCount(film.getLikesCount())
+                    .build());
+        }
+        return ranks;
+    }
+
+    private class Group {
+        private final long count;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private volatile Map<Long, FilmRank> ranks;
+        private boolean closed;
+
+        private Group(long count) {
+            this.count = count;
+        }
+
+        private synchronized void publish(List<FilmSummary> top) {
+            Map<Long, FilmRank> current = toRanks(top, count);
+            PopularFilmsDiff diff = diff(ranks == null ? Map.of() : ranks, current);
+            ranks = current;
+            if (diff.getChanged().isEmpty() && diff.getRemoved().isEmpty()) {
+                return;
+            }
+            subscribers.forEach(subscriber -> subscriber.deliver(this, diff));
+        }
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final CompletableFuture<Void> subscribed = new CompletableFuture<>();
+        private CompletableFuture<Void> delivery = subscribed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private synchronized void deliver(Group group, PopularFilmsDiff diff) {
+            delivery = delivery.thenRunAsync(() -> send(group, this, diff), senders);
+        }
+    }
+}
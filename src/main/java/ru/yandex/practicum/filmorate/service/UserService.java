@@ -3,34 +3,130 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.config.FriendRecommendationProperties;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.FriendsStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
+import java.io.InputStream;
 import java.text.MessageFormat;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
+    private final static int MAX_PAGE_SIZE = 1000;
     private final UserStorage userStorage;
     private final FriendsStorage friendsStorage;
+    private final FriendRecommendationProperties friendRecommendationProperties;
+    private final AsyncExecutor asyncExecutor;
+    private final NdjsonImporter ndjsonImporter;
+    private final TransactionTemplate transactionTemplate;
 
     public List<User> getAllUsers() {
         return userStorage.getAllUsers();
     }
 
+    public Page<User> getUsersPage(Long cursor, Integer limit) {
+        validatePageLimit(limit);
+        List<User> users = userStorage.getUsersPage(cursor == null ? 0L : cursor, limit + 1);
+        Long nextCursor = null;
+        if (users.size() > limit) {
+            users = new ArrayList<>(users.subList(0, limit));
+            nextCursor = users.get(limit - 1).getId();
+        }
+        return new Page<>(users, nextCursor);
+    }
+
+    public void streamUsers(Consumer<User> consumer) {
+        userStorage.streamUsers(consumer);
+    }
+
+    public ImportReport importUsers(InputStream in) {
+        return ndjsonImporter.importRows(in, User.class, chunk -> {
+            List<User> users = new ArrayList<>(chunk.getRows().size());
+            for (NdjsonImporter.Row<User> row : chunk.getRows()) {
+                try {
+                    validateImported(row.getValue());
+                    users.add(row.getValue());
+                } catch (ValidationException e) {
+                    chunk.fail(row, e.getMessage());
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> userStorage.createUsers(users));
+        });
+    }
+
+    public ImportReport importFriendships(InputStream in) {
+        return ndjsonImporter.importRows(in, Friendship.class, chunk -> {
+            Set<Long> userIds = userStorage.getExistingUserIds(chunk.getRows().stream()
+                    .flatMap(row -> Stream.of(row.getValue().getUserId(), row.getValue().getFriendId()))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet()));
+            List<Friendship> friendships = new ArrayList<>(chunk.getRows().size());
+            for (NdjsonImporter.Row<Friendship> row : chunk.getRows()) {
+                Friendship friendship = row.getValue();
+                if (friendship.getUserId() == null || friendship.getFriendId() == null) {
+                    chunk.fail(row, "Не указаны пользователь или друг");
+                } else if (friendship.getUserId().equals(friendship.getFriendId())) {
+                    chunk.fail(row, "Пользователь не может добавить в друзья самого себя");
+                } else if (!userIds.contains(friendship.getUserId())) {
+                    chunk.fail(row, MessageFormat.format("Пользователь c id: {0} не существует", friendship.getUserId()));
+                } else if (!userIds.contains(friendship.getFriendId())) {
+                    chunk.fail(row, MessageFormat.format("Пользователь c id: {0} не существует", friendship.getFriendId()));
+                } else {
+                    friendships.add(friendship);
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> friendsStorage.addFriendships(friendships));
+        });
+    }
+
+    public void streamFriendships(Consumer<Friendship> consumer) {
+        friendsStorage.streamFriendships(consumer);
+    }
+
     public Optional<User> getUser(Long id) {
         validateUserExist(id);
         return userStorage.getUser(id);
     }
 
+    public CompletableFuture<User> getUserAsync(Long id) {
+        return asyncExecutor.supply(() -> userStorage.getUser(id)).thenApply(user -> {
+            if (user.isEmpty()) {
+                log.warn(MessageFormat.format("Пользователь c id: {0} не существует", id));
+                throw new NotFoundException(MessageFormat.format("Пользователь c id: {0} не существует", id));
+            }
+            return user.get();
+        });
+    }
+
+    public String getUserETag(Long id) {
+        Optional<Long> version = userStorage.getUserVersion(id);
+        if (version.isEmpty()) {
+            log.warn(MessageFormat.format("Пользователь c id: {0} не существует", id));
+            throw new NotFoundException(MessageFormat.format("Пользователь c id: {0} не существует", id));
+        }
+        return MessageFormat.format("user-{0,number,#}-{1,number,#}", id, version.get());
+    }
+
     public User createUser(User user) {
         validate(user);
         return userStorage.createUser(user);
@@ -48,14 +144,12 @@ public class UserService {
     }
 
     public void addFriends(Long userId, Long friendId) {
-        validateUserExist(userId);
-        validateUserExist(friendId);
+        validateUsersExist(userId, friendId);
         friendsStorage.addFriends(userId, friendId);
     }
 
     public void removeFriends(Long userId, Long friendId) {
-        validateUserExist(userId);
-        validateUserExist(friendId);
+        validateUsersExist(userId, friendId);
         friendsStorage.removeFriends(userId, friendId);
     }
 
@@ -64,12 +158,33 @@ public class UserService {
         return friendsStorage.getFriends(userId);
     }
 
+    public CompletableFuture<List<User>> getFriendsAsync(Long userId) {
+        CompletableFuture<Boolean> userExists = asyncExecutor.supply(() -> userStorage.isUserExist(userId));
+        CompletableFuture<List<User>> friends = asyncExecutor.supply(() -> friendsStorage.getFriends(userId));
+        return userExists.thenCombine(friends, (exists, users) -> {
+            if (!exists) {
+                log.warn(MessageFormat.format("Пользователь c id: {0} не существует", userId));
+                throw new NotFoundException(MessageFormat.format("Пользователь c id: {0} не существует", userId));
+            }
+            return users;
+        });
+    }
+
+    public CompletableFuture<List<User>> getCommonFriendsAsync(long id, long otherId) {
+        return asyncExecutor.supply(() -> getCommonFriends(id, otherId));
+    }
+
     public List<User> getCommonFriends(long id, long otherId) {
-        validateUserExist(id);
-        validateUserExist(otherId);
+        validateUsersExist(id, otherId);
         return friendsStorage.getCommonFriends(id, otherId);
     }
 
+    public List<User> getFriendRecommendations(Long userId, Integer limit) {
+        validateUserExist(userId);
+        validateRecommendationsLimit(limit);
+        return friendsStorage.getFriendRecommendations(userId, limit);
+    }
+
     private void validate(User user) throws ValidationException {
         validateNotNull(user);
         validateEmail(user);
@@ -79,6 +194,32 @@ public class UserService {
         log.info("Валидация пользователя пройдена успешно");
     }
 
+    private void validateImported(User user) {
+        validateNotNull(user);
+        if (user.getEmail() == null || user.getLogin() == null || user.getBirthday() == null) {
+            throw new ValidationException("Не заполнены обязательные поля пользователя");
+        }
+        if (user.getName() == null) {
+            user.setName(user.getLogin());
+        }
+        validate(user);
+    }
+
+    private void validatePageLimit(Integer limit) {
+        if (limit == null || limit <= 0 || limit > MAX_PAGE_SIZE) {
+            log.warn(MessageFormat.format("Размер страницы должен быть от 1 до {0,number,#}", MAX_PAGE_SIZE));
+            throw new ValidationException(MessageFormat.format("Размер страницы должен быть от 1 до {0,number,#}", MAX_PAGE_SIZE));
+        }
+    }
+
+    private void validateRecommendationsLimit(Integer limit) {
+        int maxResults = friendRecommendationProperties.getMaxResults();
+        if (limit == null || limit <= 0 || limit > maxResults) {
+            log.warn(MessageFormat.format("Количество рекомендаций должно быть от 1 до {0,number,#}", maxResults));
+            throw new ValidationException(MessageFormat.format("Количество рекомендаций должно быть от 1 до {0,number,#}", maxResults));
+        }
+    }
+
     private void validateNotNull(User user) {
         if (user == null) {
             log.warn("Пользователь не может быть null");
@@ -87,14 +228,22 @@ public class UserService {
     }
 
     private void validateUserExist(Long id) {
-        boolean isContainsId = userStorage.getAllUsers().stream().map(User::getId)
-                .collect(Collectors.toList()).contains(id);
-        if (!isContainsId) {
+        if (!userStorage.isUserExist(id)) {
             log.warn(MessageFormat.format("Пользователь c id: {0} не существует", id));
             throw new NotFoundException(MessageFormat.format("Пользователь c id: {0} не существует", id));
         }
     }
 
+    private void validateUsersExist(Long... ids) {
+        Set<Long> existingIds = userStorage.getExistingUserIds(Arrays.asList(ids));
+        for (Long id : ids) {
+            if (!existingIds.contains(id)) {
+                log.warn(MessageFormat.format("Пользователь c id: {0} не существует", id));
+                throw new NotFoundException(MessageFormat.format("Пользователь c id: {0} не существует", id));
+            }
+        }
+    }
+
     private void validateEmail(User user) {
         if (user.getEmail() == null | user.getEmail().isEmpty() || !user.getEmail().contains("@")) {
             log.warn("Электронная почта не может быть пустой и должна содержать символ @");
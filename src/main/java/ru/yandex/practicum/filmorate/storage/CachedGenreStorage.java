@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.config.DictionaryCacheProperties;
+import ru.yandex.practicum.filmorate.model.DictionaryCacheStats;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+
+@Slf4j
+@Primary
+@Repository
+public class CachedGenreStorage implements GenreStorage {
+    private final DictionaryCache<Genre> genreCache;
+
+    public CachedGenreStorage(GenreDbStorage genreDbStorage, DictionaryCacheProperties properties) {
+        this.genreCache = new DictionaryCache<>(genreDbStorage::getAllGenres, Genre::getId, properties);
+    }
+
+    @PostConstruct
+    public void preload() {
+        genreCache.preload();
+        log.info("Справочник жанров загружен в кэш");
+    }
+
+    @Override
+    public List<Genre> getAllGenres() {
+        return genreCache.getAll();
+    }
+
+    @Override
+    public Optional<Genre> getGenre(Long id) {
+        return genreCache.get(id);
+    }
+
+    @Override
+    public List<Genre> getGenresByIds(Collection<Long> ids) {
+        return genreCache.getByIds(ids);
+    }
+
+    @Override
+    public boolean isGenreExist(Long id) {
+        return genreCache.contains(id);
+    }
+
+    @Override
+    public Set<Long> getExistingGenreIds(Collection<Long> ids) {
+        Set<Long> existingIds = new HashSet<>();
+        for (Long id : ids) {
+            if (genreCache.contains(id)) {
+                existingIds.add(id);
+            }
+        }
+        return existingIds;
+    }
+
+    public void invalidate() {
+        genreCache.invalidate();
+        log.info("Кэш справочника жанров сброшен");
+    }
+
+    public DictionaryCacheStats getStats() {
+        return genreCache.getStats();
+    }
+}
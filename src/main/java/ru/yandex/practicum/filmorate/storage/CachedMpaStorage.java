@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.config.DictionaryCacheProperties;
+import ru.yandex.practicum.filmorate.model.DictionaryCacheStats;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+@Primary
+@Repository
+public class CachedMpaStorage implements MpaStorage {
+    private final DictionaryCache<Mpa> mpaCache;
+
+    public CachedMpaStorage(MpaDbStorage mpaDbStorage, DictionaryCacheProperties properties) {
+        this.mpaCache = new DictionaryCache<>(mpaDbStorage::getAllMpa, Mpa::getId, properties);
+    }
+
+    @PostConstruct
+    public void preload() {
+        mpaCache.preload();
+        log.info("Справочник рейтингов загружен в кэш");
+    }
+
+    @Override
+    public List<Mpa> getAllMpa() {
+        return mpaCache.getAll();
+    }
+
+    @Override
+    public Optional<Mpa> getMpa(Long id) {
+        return mpaCache.get(id);
+    }
+
+    @Override
+    public List<Mpa> getMpaByIds(Collection<Long> ids) {
+        return mpaCache.getByIds(ids);
+    }
+
+    public void invalidate() {
+        mpaCache.invalidate();
+        log.info("Кэш справочника рейтингов сброшен");
+    }
+
+    public DictionaryCacheStats getStats() {
+        return mpaCache.getStats();
+    }
+}
@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import ru.yandex.practicum.filmorate.config.DictionaryCacheProperties;
+import ru.yandex.practicum.filmorate.model.DictionaryCacheStats;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class DictionaryCache<T> {
+    private static final String DICTIONARY_KEY = "all";
+    private final LoadingCache<String, Map<Long, T>> cache;
+
+    public DictionaryCache(Supplier<List<T>> loader, Function<T, Long> idExtractor,
+                           DictionaryCacheProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .refreshAfterWrite(properties.getRefreshAfterWrite())
+                .recordStats()
+                .build(key -> {
+                    Map<Long, T> values = new LinkedHashMap<>();
+                    for (T value : loader.get()) {
+                        values.put(idExtractor.apply(value), value);
+                    }
+                    return Collections.unmodifiableMap(values);
+                });
+    }
+
+    public void preload() {
+        cache.get(DICTIONARY_KEY);
+    }
+
+    public List<T> getAll() {
+        return new ArrayList<>(values().values());
+    }
+
+    public Optional<T> get(Long id) {
+        return Optional.ofNullable(values().get(id));
+    }
+
+    public List<T> getByIds(Collection<Long> ids) {
+        Map<Long, T> values = values();
+        List<T> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T value = values.get(id);
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    public boolean contains(Long id) {
+        return values().containsKey(id);
+    }
+
+    public void invalidate() {
+        cache.invalidateAll();
+    }
+
+    public DictionaryCacheStats getStats() {
+        CacheStats stats = cache.stats();
+        return DictionaryCacheStats.builder()
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .loadCount(stats.loadCount())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+
+    private Map<Long, T> values() {
+        return cache.get(DICTIONARY_KEY);
+    }
+}
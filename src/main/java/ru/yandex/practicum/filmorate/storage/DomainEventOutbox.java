@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.config.DomainEventProperties;
+import ru.yandex.practicum.filmorate.model.DomainEvent;
+import ru.yandex.practicum.filmorate.model.DomainEventType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class DomainEventOutbox {
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final DomainEventProperties properties;
+    private volatile Runnable listener = () -> {
+    };
+    private static final String SQL_QUERY_ADD_EVENT = "INSERT INTO OUTBOX(event_type, entity_id, related_id) " +
+            "VALUES (?, ?, ?)";
+    private static final String SQL_QUERY_GET_EVENTS = "SELECT id, event_type, entity_id, related_id FROM OUTBOX " +
+            "ORDER BY id " +
+            "LIMIT ?";
+    private static final String SQL_DELETE_EVENTS = "DELETE FROM OUTBOX WHERE id IN (:ids)";
+    private static final String SQL_QUERY_ADD_DEAD_LETTER = "INSERT INTO OUTBOX_DEAD_LETTER(event_id, event_type, " +
+            "entity_id, related_id, consumer, error) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    public void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    public void append(DomainEventType type, Long entityId, Long relatedId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        jdbcTemplate.update(SQL_QUERY_ADD_EVENT, type.name(), entityId, relatedId);
+        AfterCommit.run(listener);
+    }
+
+    public void appendAll(List<DomainEvent> events) {
+        if (!properties.isEnabled() || events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_QUERY_ADD_EVENT, events.stream()
+                .map(event -> new Object[]{event.getType().name(), event.getEntityId(), event.getRelatedId()})
+                .collect(Collectors.toList()));
+        AfterCommit.run(listener);
+    }
+
+    public List<DomainEvent> getEvents(int limit) {
+        return jdbcTemplate.query(SQL_QUERY_GET_EVENTS, (rs, rowNum) -> DomainEvent.builder()
+                .id(rs.getLong(1))
+                .type(DomainEventType.valueOf(rs.getString(2)))
+                .entityId(rs.getLong(3))
+                .relatedId(rs.getObject(4, Long.class))
+                .build(), limit);
+    }
+
+    public void deleteEvents(List<Long> ids) {
+        if (!ids.isEmpty()) {
+            namedParameterJdbcTemplate.update(SQL_DELETE_EVENTS, Map.of("ids", ids));
+        }
+    }
+
+    public void addDeadLetter(DomainEvent event, String consumer, String error) {
+        jdbcTemplate.update(SQL_QUERY_ADD_DEAD_LETTER, event.getId(), event.getType().name(), event.getEntityId(),
+                event.getRelatedId(), consumer, error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH)));
+    }
+}
@@ -2,57 +2,238 @@ package ru.yandex.practicum.filmorate.storage;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.config.LikeCountersProperties;
+import ru.yandex.practicum.filmorate.config.LikesWriteBehindProperties;
 import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.mapper.FilmSummaryMapper;
 import ru.yandex.practicum.filmorate.mapper.UserMapper;
+import ru.yandex.practicum.filmorate.model.DomainEvent;
+import ru.yandex.practicum.filmorate.model.DomainEventType;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.LikeStatus;
+import ru.yandex.practicum.filmorate.model.PopularFilmIds;
+import ru.yandex.practicum.filmorate.model.SearchField;
 import ru.yandex.practicum.filmorate.model.User;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Date;
 import java.sql.PreparedStatement;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Repository
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "type", havingValue = "jdbc", matchIfMissing = true)
 public class FilmDbStorage implements FilmStorage {
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     private final FilmMapper filmMapper;
-
+    private final FilmSummaryMapper filmSummaryMapper;
     private final UserMapper userMapper;
-    private static final String SQL_QUERY_GET_ALL_FILMS = "SELECT * FROM FILMS";
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final LikesIndex likesIndex;
+    private final FilmRecommender filmRecommender;
+    private final FilmSearchIndex filmSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final LikesWriteBehindQueue likesWriteBehindQueue;
+    private final LikesWriteBehindProperties likesWriteBehindProperties;
+    private final LikeCounters likeCounters;
+    private final LikeCountersProperties likeCountersProperties;
+    private final DomainEventOutbox domainEventOutbox;
+    private ScheduledExecutorService likesReconciler;
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String SQL_QUERY_GET_ALL_FILMS = "SELECT " + FilmMapper.COLUMNS + " FROM FILMS";
+    private static final String SQL_QUERY_GET_FILMS_PAGE = "SELECT " + FilmMapper.COLUMNS + " FROM FILMS " +
+            "WHERE ID > ? " +
+            "ORDER BY ID " +
+            "LIMIT ?";
+    private static final String SQL_QUERY_GET_FILM_SUMMARIES_PAGE = "SELECT " + FilmSummaryMapper.COLUMNS + " FROM FILMS " +
+            "WHERE ID > ? " +
+            "ORDER BY ID " +
+            "LIMIT ?";
+    private static final String SQL_QUERY_GET_FILM_SUMMARIES_BY_IDS = "SELECT " + FilmSummaryMapper.COLUMNS +
+            " FROM FILMS WHERE ID IN (:ids)";
+    private static final String SQL_QUERY_GET_ALL_FILMS_ORDERED = "SELECT " + FilmMapper.COLUMNS + " FROM FILMS ORDER BY ID";
     private static final String SQL_QUERY_CREATE_FILM = "INSERT INTO FILMS(name, description, release_date, duration, rate, mpa_id) " +
             "values (?, ?, ?, ?, ?, ?)";
-    private static final String SQL_QUERY_GET_FILM_BY_ID = "SELECT * FROM FILMS " +
+    private static final String SQL_QUERY_GET_FILM_BY_ID = "SELECT " + FilmMapper.COLUMNS + " FROM FILMS " +
             "WHERE ID = ?";
+    private static final String SQL_QUERY_FILM_EXISTS = "SELECT EXISTS(SELECT 1 FROM FILMS WHERE ID = ?)";
+    private static final String SQL_QUERY_GET_EXISTING_FILM_IDS = "SELECT ID FROM FILMS WHERE ID IN (:ids)";
     private static final String SQL_QUERY_UPDATE_FILM = "UPDATE FILMS " +
-            "SET name = ?, description = ?, release_date = ?, duration = ? ,rate = ?, mpa_id = ? " +
+            "SET name = ?, description = ?, release_date = ?, duration = ? ,rate = ?, mpa_id = ?, version = version + 1 " +
             "WHERE ID = ?";
+    private static final String SQL_QUERY_GET_FILM_VERSION = "SELECT version FROM FILMS WHERE ID = ?";
 
     private static final String SQL_DELETE_FILM_BY_ID = "DELETE FROM FILMS WHERE ID = ?";
     private static final String SQL_QUERY_ADD_LIKE = "INSERT INTO LIKES(film_id, user_id) VALUES (?, ?)";
+    private static final String SQL_QUERY_ADD_LIKE_IF_ABSENT = "INSERT INTO LIKES(film_id, user_id) " +
+            "SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM LIKES WHERE film_id = ? AND user_id = ?)";
     private static final String SQL_QUERY_DELETE_LIKE = "DELETE FROM LIKES WHERE film_id = ? AND user_id = ?";
+    private static final String SQL_QUERY_SET_LIKES_COUNT = "UPDATE FILMS " +
+            "SET likes_count = ? " +
+            "WHERE ID = ?";
+    private static final String SQL_QUERY_RECOUNT_LIKES = "UPDATE FILMS f " +
+            "SET likes_count = (SELECT count(*) FROM LIKES l WHERE l.film_id = f.id)";
+    private static final String SQL_QUERY_GET_LIKES_COUNTS = "SELECT id, likes_count, release_date FROM FILMS";
+    private static final String SQL_QUERY_GET_GENRES_BY_FILM = "SELECT film_id, genre_id FROM FILMS_GENRES " +
+            "ORDER BY film_id, genre_id";
+    private static final String SQL_QUERY_GET_SEARCH_TEXTS = "SELECT id, name, description FROM FILMS ORDER BY id";
+    private static final String SQL_QUERY_GET_LIKES_BY_USER = "SELECT user_id, film_id FROM LIKES ORDER BY user_id, film_id";
+    private static final String SQL_QUERY_GET_ALL_LIKES_ORDERED = "SELECT film_id, user_id FROM LIKES ORDER BY film_id, user_id";
+    private static final String SQL_QUERY_GET_LIKES_BY_FILM = "SELECT film_id, user_id FROM LIKES ORDER BY film_id, user_id";
 
-
-    private static final String SQL_QUERY_GET_LIKES = "SELECT * FROM USERS u " +
-            "JOIN LIKES l ON l.user_id = u.id " +
-            "WHERE film_id = ?";
-    private static final String SQL_QUERY_GET_POPULAR_FILMS = "SELECT * FROM FILMS f " +
-            "LEFT JOIN LIKES l ON f.id = l.film_id " +
-            "GROUP BY f.id " +
-            "ORDER BY count(l.user_id) DESC " +
+    private static final String SQL_QUERY_GET_LIKES = "SELECT " + UserMapper.columns("u") +
+            " FROM LIKES l " +
+            "JOIN USERS u ON u.id = l.user_id " +
+            "WHERE l.film_id = ? " +
+            "ORDER BY l.user_id";
+    private static final String SQL_QUERY_GET_LIKES_PAGE = "SELECT " + UserMapper.columns("u") +
+            " FROM LIKES l " +
+            "JOIN USERS u ON u.id = l.user_id " +
+            "WHERE l.film_id = ? AND l.user_id > ? " +
+            "ORDER BY l.user_id " +
             "LIMIT ?";
+    private static final String SQL_QUERY_GET_FILMS_BY_IDS = "SELECT " + FilmMapper.COLUMNS + " FROM FILMS WHERE ID IN (:ids)";
+
+    @PostConstruct
+    public void init() {
+        initPopularFilms();
+        initLikesIndex();
+        initSearchIndex();
+        likesWriteBehindQueue.setWriter(this::saveLikes);
+        likesReconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "likes-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = likeCountersProperties.getReconcileInterval().toMillis();
+        likesReconciler.scheduleWithFixedDelay(this::reconcileLikesCounts, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        likesReconciler.shutdown();
+        try {
+            likesReconciler.awaitTermination(likeCountersProperties.getReconcileInterval().toMillis() * 10,
+                    TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        reconcileLikesCounts();
+    }
+
+    public void reconcileLikesCounts() {
+        Map<Long, Long> likesCounts = likeCounters.drainStore();
+        if (likesCounts.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(SQL_QUERY_SET_LIKES_COUNT, likesCounts.entrySet().stream()
+                    .map(likesCount -> new Object[]{likesCount.getValue(), likesCount.getKey()})
+                    .collect(Collectors.toList()));
+            log.debug("Счетчики лайков сохранены, фильмов: {}", likesCounts.size());
+        } catch (RuntimeException e) {
+            likesCounts.keySet().forEach(likeCounters::markStore);
+            log.error("Не удалось сохранить счетчики лайков", e);
+        }
+    }
 
+    private void initPopularFilms() {
+        jdbcTemplate.update(SQL_QUERY_RECOUNT_LIKES);
+        Map<Long, Long> likesCounts = new HashMap<>();
+        Map<Long, Integer> releaseYears = new HashMap<>();
+        jdbcTemplate.query(SQL_QUERY_GET_LIKES_COUNTS, rs -> {
+            likesCounts.put(rs.getLong("id"), rs.getLong("likes_count"));
+            Date releaseDate = rs.getDate("release_date");
+            if (releaseDate != null) {
+                releaseYears.put(rs.getLong("id"), releaseDate.toLocalDate().getYear());
+            }
+        });
+        SortedLongArrays.GroupBuilder genresByFilm = new SortedLongArrays.GroupBuilder();
+        jdbcTemplate.query(SQL_QUERY_GET_GENRES_BY_FILM, rs -> {
+            genresByFilm.add(rs.getLong("film_id"), rs.getLong("genre_id"));
+        });
+        popularFilmsIndex.rebuild(likesCounts, releaseYears, genresByFilm.build());
+        log.info("Рейтинг популярных фильмов построен, фильмов: {}", likesCounts.size());
+    }
+
+    private void initLikesIndex() {
+        SortedLongArrays.GroupBuilder likedFilmsByUser = new SortedLongArrays.GroupBuilder();
+        jdbcTemplate.query(SQL_QUERY_GET_LIKES_BY_USER, rs -> {
+            likedFilmsByUser.add(rs.getLong("user_id"), rs.getLong("film_id"));
+        });
+        SortedLongArrays.GroupBuilder likersByFilm = new SortedLongArrays.GroupBuilder();
+        jdbcTemplate.query(SQL_QUERY_GET_LIKES_BY_FILM, rs -> {
+            likersByFilm.add(rs.getLong("film_id"), rs.getLong("user_id"));
+        });
+        Map<Long, long[]> likedFilms = likedFilmsByUser.build();
+        likesIndex.rebuild(likedFilms, likersByFilm.build());
+        log.info("Индекс лайков построен, пользователей: {}", likedFilms.size());
+    }
+
+    private void initSearchIndex() {
+        FilmSearchIndex.Loader loader = filmSearchIndex.loader();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(SQL_QUERY_GET_SEARCH_TEXTS);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            return stmt;
+        }, rs -> {
+            loader.add(rs.getLong("id"), rs.getString("name"), rs.getString("description"));
+        });
+        loader.load();
+        log.info("Поисковый индекс фильмов построен");
+    }
 
     @Override
     public List<Film> getAllFilms() {
         return jdbcTemplate.query(SQL_QUERY_GET_ALL_FILMS, filmMapper);
     }
 
+    @Override
+    public List<Film> getFilmsPage(Long afterId, Integer limit) {
+        return jdbcTemplate.query(SQL_QUERY_GET_FILMS_PAGE, filmMapper, afterId, limit);
+    }
+
+    @Override
+    public List<FilmSummary> getFilmSummariesPage(Long afterId, Integer limit) {
+        return fillLikes(jdbcTemplate.query(SQL_QUERY_GET_FILM_SUMMARIES_PAGE, filmSummaryMapper, afterId, limit));
+    }
+
+    @Override
+    public void streamFilms(Consumer<Film> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(SQL_QUERY_GET_ALL_FILMS_ORDERED,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            return stmt;
+        }, rs -> {
+            consumer.accept(filmMapper.mapRow(rs, rs.getRow()));
+        });
+    }
+
     @Override
     public Film createFilm(Film film) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
@@ -67,11 +248,53 @@ public class FilmDbStorage implements FilmStorage {
             return stmt;
         }, keyHolder);
         film.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        domainEventOutbox.append(DomainEventType.FILM_CREATED, film.getId(), null);
+        AfterCommit.run(() -> {
+            popularFilmsIndex.addFilm(film.getId(), getReleaseYear(film));
+            filmSearchIndex.putFilm(film.getId(), film.getName(), film.getDescription());
+        });
 
         log.info("Фильм добавлен");
         return film;
     }
 
+    @Override
+    public List<Film> createFilms(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(SQL_QUERY_CREATE_FILM, new String[]{"id"})) {
+                for (Film film : films) {
+                    stmt.setString(1, film.getName());
+                    stmt.setString(2, film.getDescription());
+                    stmt.setObject(3, film.getReleaseDate());
+                    stmt.setLong(4, film.getDuration());
+                    stmt.setObject(5, film.getRate());
+                    stmt.setLong(6, film.getMpa().getId());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    for (Film film : films) {
+                        keys.next();
+                        film.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+        domainEventOutbox.appendAll(films.stream()
+                .map(film -> DomainEvent.builder().type(DomainEventType.FILM_CREATED).entityId(film.getId()).build())
+                .collect(Collectors.toList()));
+        AfterCommit.run(() -> films.forEach(film -> {
+            popularFilmsIndex.addFilm(film.getId(), getReleaseYear(film));
+            filmSearchIndex.putFilm(film.getId(), film.getName(), film.getDescription());
+        }));
+        log.info("Добавлен пакет фильмов: {}", films.size());
+        return films;
+    }
+
     @Override
     public Optional<Film> getFilm(Long id) {
         List<Film> filmList = jdbcTemplate.query(SQL_QUERY_GET_FILM_BY_ID, filmMapper, id);
@@ -81,6 +304,30 @@ public class FilmDbStorage implements FilmStorage {
         return Optional.of(filmList.get(0));
     }
 
+    @Override
+    public Optional<Long> getFilmVersion(Long id) {
+        return jdbcTemplate.queryForList(SQL_QUERY_GET_FILM_VERSION, Long.class, id).stream().findFirst();
+    }
+
+    @Override
+    public long getPopularFilmsVersion() {
+        return popularFilmsIndex.getVersion();
+    }
+
+    @Override
+    public boolean isFilmExist(Long id) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(SQL_QUERY_FILM_EXISTS, Boolean.class, id));
+    }
+
+    @Override
+    public Set<Long> getExistingFilmIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(SQL_QUERY_GET_EXISTING_FILM_IDS,
+                Map.of("ids", ids), Long.class));
+    }
+
     @Override
     public Film updateFilm(Film film) {
         jdbcTemplate.update(SQL_QUERY_UPDATE_FILM,
@@ -91,34 +338,271 @@ public class FilmDbStorage implements FilmStorage {
                 film.getRate(),
                 film.getMpa().getId(),
                 film.getId());
+        domainEventOutbox.append(DomainEventType.FILM_UPDATED, film.getId(), null);
+        AfterCommit.run(() -> {
+            popularFilmsIndex.setReleaseYear(film.getId(), getReleaseYear(film));
+            filmSearchIndex.putFilm(film.getId(), film.getName(), film.getDescription());
+        });
         log.info("Фильм обновлен");
         return film;
     }
 
     @Override
     public void deleteFilm(Long id) {
-        jdbcTemplate.update(SQL_DELETE_FILM_BY_ID, id);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(SQL_DELETE_FILM_BY_ID, id);
+            domainEventOutbox.append(DomainEventType.FILM_DELETED, id, null);
+        });
+        AfterCommit.run(() -> {
+            popularFilmsIndex.removeFilm(id);
+            likesIndex.removeFilm(id);
+            filmSearchIndex.removeFilm(id);
+        });
         log.info("Фильм удален");
     }
 
     @Override
-    public List<User> addLike(Long filmId, Long userId) {
-        jdbcTemplate.update(SQL_QUERY_ADD_LIKE, filmId, userId);
-        return getLikes(filmId);
+    public LikeStatus addLike(Long filmId, Long userId) {
+        if (likesWriteBehindQueue.isEnabled()) {
+            awaitAck(likesWriteBehindQueue.submit(Like.builder().filmId(filmId).userId(userId).build(), true));
+        } else if (saveLike(filmId, userId)) {
+            popularFilmsIndex.changeLikes(filmId, 1);
+            likesIndex.addLike(filmId, userId);
+            filmRecommender.invalidate(userId);
+        }
+        return getLikeStatus(filmId, userId, true);
+    }
+
+    @Override
+    public LikeStatus removeLike(Long filmId, Long userId) {
+        if (likesWriteBehindQueue.isEnabled()) {
+            awaitAck(likesWriteBehindQueue.submit(Like.builder().filmId(filmId).userId(userId).build(), false));
+        } else if (deleteLike(filmId, userId)) {
+            popularFilmsIndex.changeLikes(filmId, -1);
+            likesIndex.removeLike(filmId, userId);
+            filmRecommender.invalidate(userId);
+        }
+        return getLikeStatus(filmId, userId, false);
+    }
+
+    @Override
+    public List<Like> addLikes(List<Like> likes) {
+        if (likes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return saveLikes(likes, Collections.emptyList());
     }
 
     @Override
-    public List<User> removeLike(Long filmId, Long userId) {
-        jdbcTemplate.update(SQL_QUERY_DELETE_LIKE, filmId, userId);
-        return getLikes(filmId);
+    public void streamLikes(Consumer<Like> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(SQL_QUERY_GET_ALL_LIKES_ORDERED,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            return stmt;
+        }, rs -> {
+            consumer.accept(Like.builder().filmId(rs.getLong("film_id")).userId(rs.getLong("user_id")).build());
+        });
     }
 
-    private List<User> getLikes(Long filmId) {
+    @Override
+    public List<User> getLikes(Long filmId) {
         return jdbcTemplate.query(SQL_QUERY_GET_LIKES, userMapper, filmId);
     }
 
     @Override
-    public List<Film> getPopularFilms(Long count) {
-        return jdbcTemplate.query(SQL_QUERY_GET_POPULAR_FILMS, filmMapper, count);
+    public List<User> getLikesPage(Long filmId, Long afterUserId, Integer limit) {
+        return jdbcTemplate.query(SQL_QUERY_GET_LIKES_PAGE, userMapper, filmId, afterUserId, limit);
+    }
+
+    private boolean saveLike(Long filmId, Long userId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!insertLike(filmId, userId)) {
+                return false;
+            }
+            domainEventOutbox.append(DomainEventType.LIKE_ADDED, filmId, userId);
+            return true;
+        }));
+    }
+
+    private boolean deleteLike(Long filmId, Long userId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(SQL_QUERY_DELETE_LIKE, filmId, userId) == 0) {
+                return false;
+            }
+            domainEventOutbox.append(DomainEventType.LIKE_REMOVED, filmId, userId);
+            return true;
+        }));
+    }
+
+    private boolean insertLike(Long filmId, Long userId) {
+        try {
+            return jdbcTemplate.update(SQL_QUERY_ADD_LIKE, filmId, userId) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private LikeStatus getLikeStatus(Long filmId, Long userId, boolean liked) {
+        return LikeStatus.builder()
+                .filmId(filmId)
+                .userId(userId)
+                .liked(liked)
+                .likesCount(popularFilmsIndex.getLikes(filmId))
+                .build();
+    }
+
+    private List<Like> saveLikes(List<Like> added, List<Like> removed) {
+        List<Like> savedAdded = new ArrayList<>();
+        List<Like> savedRemoved = new ArrayList<>();
+        List<Like> failed = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeLikes(added, removed, savedAdded, savedRemoved));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Пакет лайков не записан целиком, записываем по одному: {}", e.getMessage());
+            savedAdded.clear();
+            savedRemoved.clear();
+            added.forEach(like -> retryLike(like, List.of(like), List.of(), savedAdded, savedRemoved, failed));
+            removed.forEach(like -> retryLike(like, List.of(), List.of(like), savedAdded, savedRemoved, failed));
+        }
+        Map<Long, Long> deltas = new HashMap<>();
+        savedAdded.forEach(like -> {
+            deltas.merge(like.getFilmId(), 1L, Long::sum);
+            likesIndex.addLike(like.getFilmId(), like.getUserId());
+            filmRecommender.invalidate(like.getUserId());
+        });
+        savedRemoved.forEach(like -> {
+            deltas.merge(like.getFilmId(), -1L, Long::sum);
+            likesIndex.removeLike(like.getFilmId(), like.getUserId());
+            filmRecommender.invalidate(like.getUserId());
+        });
+        deltas.forEach(popularFilmsIndex::changeLikes);
+        log.info("Записан пакет лайков: добавлено {}, удалено {}, отклонено {}",
+                savedAdded.size(), savedRemoved.size(), failed.size());
+        return failed;
+    }
+
+    private void retryLike(Like like, List<Like> added, List<Like> removed,
+                           List<Like> savedAdded, List<Like> savedRemoved, List<Like> failed) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeLikes(added, removed, savedAdded, savedRemoved));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Лайк фильма {} от пользователя {} не записан: {}", like.getFilmId(), like.getUserId(),
+                    e.getMessage());
+            failed.add(like);
+        }
+    }
+
+    private void writeLikes(List<Like> added, List<Like> removed, List<Like> savedAdded, List<Like> savedRemoved) {
+        List<Like> insertedLikes = new ArrayList<>();
+        List<Like> deletedLikes = new ArrayList<>();
+        if (!added.isEmpty()) {
+            int[] addedCounts = jdbcTemplate.batchUpdate(SQL_QUERY_ADD_LIKE_IF_ABSENT, added.stream()
+                    .map(like -> new Object[]{like.getFilmId(), like.getUserId(), like.getFilmId(), like.getUserId()})
+                    .collect(Collectors.toList()));
+            for (int i = 0; i < addedCounts.length; i++) {
+                if (addedCounts[i] > 0) {
+                    insertedLikes.add(added.get(i));
+                }
+            }
+        }
+        if (!removed.isEmpty()) {
+            int[] removedCounts = jdbcTemplate.batchUpdate(SQL_QUERY_DELETE_LIKE, removed.stream()
+                    .map(like -> new Object[]{like.getFilmId(), like.getUserId()})
+                    .collect(Collectors.toList()));
+            for (int i = 0; i < removedCounts.length; i++) {
+                if (removedCounts[i] > 0) {
+                    deletedLikes.add(removed.get(i));
+                }
+            }
+        }
+        List<DomainEvent> events = new ArrayList<>();
+        insertedLikes.forEach(like -> events.add(likeEvent(DomainEventType.LIKE_ADDED, like)));
+        deletedLikes.forEach(like -> events.add(likeEvent(DomainEventType.LIKE_REMOVED, like)));
+        domainEventOutbox.appendAll(events);
+        savedAdded.addAll(insertedLikes);
+        savedRemoved.addAll(deletedLikes);
+    }
+
+    private static DomainEvent likeEvent(DomainEventType type, Like like) {
+        return DomainEvent.builder().type(type).entityId(like.getFilmId()).relatedId(like.getUserId()).build();
+    }
+
+    private void awaitAck(CompletableFuture<Void> ack) {
+        if (!likesWriteBehindProperties.isDurableAck()) {
+            return;
+        }
+        try {
+            ack.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Film> getPopularFilms(Long count, Long genreId, Integer year) {
+        return getFilmsByIds(popularFilmsIndex.getTop(count, genreId, year));
+    }
+
+    @Override
+    public PopularFilmIds getPopularFilmIds(Long count, Long genreId, Integer year) {
+        return popularFilmsIndex.getRanking(count, genreId, year);
+    }
+
+    @Override
+    public List<FilmSummary> getPopularFilmSummaries(Long count, Long genreId, Integer year) {
+        List<Long> filmIds = popularFilmsIndex.getTop(count, genreId, year);
+        if (filmIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<FilmSummary> summaries = namedParameterJdbcTemplate.query(SQL_QUERY_GET_FILM_SUMMARIES_BY_IDS,
+                Map.of("ids", filmIds), filmSummaryMapper);
+        return fillLikes(orderByIds(filmIds, summaries, FilmSummary::getId));
+    }
+
+    @Override
+    public List<Film> getRecommendedFilms(Long userId, int limit) {
+        return getFilmsByIds(Arrays.stream(filmRecommender.recommend(userId, limit)).boxed().collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<Film> searchFilms(String query, Set<SearchField> fields, int offset, int limit) {
+        return getFilmsByIds(Arrays.stream(filmSearchIndex.search(query, fields, offset, limit))
+                .boxed()
+                .collect(Collectors.toList()));
+    }
+
+    private Integer getReleaseYear(Film film) {
+        return film.getReleaseDate() == null ? null : film.getReleaseDate().getYear();
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(List<Long> filmIds) {
+        if (filmIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return orderByIds(filmIds, namedParameterJdbcTemplate.query(SQL_QUERY_GET_FILMS_BY_IDS,
+                Map.of("ids", filmIds), filmMapper), Film::getId);
+    }
+
+    private <T> List<T> orderByIds(List<Long> ids, List<T> rows, Function<T, Long> idGetter) {
+        Map<Long, T> rowsById = new HashMap<>();
+        rows.forEach(row -> rowsById.put(idGetter.apply(row), row));
+        List<T> orderedRows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T row = rowsById.get(id);
+            if (row != null) {
+                orderedRows.add(row);
+            }
+        }
+        return orderedRows;
+    }
+
+    private List<FilmSummary> fillLikes(List<FilmSummary> summaries) {
+        summaries.forEach(summary -> summary.setLikesCount(popularFilmsIndex.getLikes(summary.getId())));
+        return summaries;
     }
 }
@@ -0,0 +1,186 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.FilmRecommendationProperties;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmRecommender {
+    private static final int LEAF_FILMS = 32;
+    private final LikesIndex likesIndex;
+    private final FilmRecommendationProperties properties;
+    private final Map<Long, Recommendations> precomputed = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+    private ForkJoinPool pool;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        pool = new ForkJoinPool(properties.getParallelism());
+        if (!properties.isPrecomputeEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "film-recommendations");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getPrecomputeInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::precompute, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Предварительный расчёт рекомендаций фильмов включен");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        pool.shutdown();
+    }
+
+    public long[] recommend(Long userId, int limit) {
+        Recommendations precomputedRecommendations = precomputed.get(userId);
+        long[] recommendations = precomputedRecommendations == null || precomputedRecommendations.getIds() == null
+                ? rank(userId)
+                : precomputedRecommendations.getIds();
+        return recommendations.length <= limit ? recommendations.clone() : Arrays.copyOf(recommendations, limit);
+    }
+
+    public void invalidate(Long userId) {
+        if (properties.isPrecomputeEnabled()) {
+            precomputed.put(userId, new Recommendations(null, versions.incrementAndGet()));
+        }
+    }
+
+    public void refresh(Collection<Long> userIds) {
+        if (!properties.isPrecomputeEnabled()) {
+            return;
+        }
+        for (Long userId : userIds) {
+            long version = versions.get();
+            boolean heavy = likesIndex.countLikedFilms(userId) >= properties.getHeavyUserLikes();
+            store(userId, heavy ? rank(userId) : null, version);
+        }
+    }
+
+    public void precompute() {
+        long version = versions.get();
+        long[] heavyUsers = likesIndex.getUsersWithLikes(properties.getHeavyUserLikes());
+        Set<Long> heavyUserIds = new HashSet<>();
+        for (long userId : heavyUsers) {
+            heavyUserIds.add(userId);
+            store(userId, rank(userId), version);
+        }
+        precomputed.entrySet().removeIf(entry -> entry.getValue().getVersion() <= version
+                && !heavyUserIds.contains(entry.getKey()));
+        log.info("Рекомендации фильмов рассчитаны заранее, пользователей: {}", heavyUsers.length);
+    }
+
+    private void store(Long userId, long[] recommendations, long version) {
+        precomputed.compute(userId, (id, current) -> current != null && current.getVersion() > version
+                ? current
+                : new Recommendations(recommendations, version));
+    }
+
+    private long[] rank(Long userId) {
+        long[] films = likesIndex.getLikedFilms(userId);
+        if (films.length == 0) {
+            return SortedLongArrays.EMPTY;
+        }
+        TopIds neighbours = findNeighbours(userId, collectLikers(films));
+        Map<Long, Double> scores = new HashMap<>();
+        for (TopIds.Entry neighbour : neighbours.sorted()) {
+            for (long filmId : likesIndex.getLikedFilms(neighbour.getId())) {
+                if (!SortedLongArrays.contains(films, filmId)) {
+                    scores.merge(filmId, neighbour.getScore(), Double::sum);
+                }
+            }
+        }
+        TopIds top = new TopIds(properties.getMaxResults());
+        scores.forEach(top::offer);
+        return top.ids();
+    }
+
+    private TopIds findNeighbours(long userId, long[] likers) {
+        TopIds neighbours = new TopIds(properties.getNeighbours());
+        int start = 0;
+        while (start < likers.length) {
+            long likerId = likers[start];
+            int end = start + 1;
+            while (end < likers.length && likers[end] == likerId) {
+                end++;
+            }
+            if (likerId != userId) {
+                neighbours.offer(likerId, end - start);
+            }
+            start = end;
+        }
+        return neighbours;
+    }
+
+    private long[] collectLikers(long[] films) {
+        long total = 0;
+        for (long filmId : films) {
+            total += Math.min(likesIndex.countLikers(filmId), properties.getLikersPerFilmCap());
+        }
+        if (total < properties.getParallelThreshold()) {
+            return collectLikers(films, 0, films.length);
+        }
+        return pool.invoke(new CollectLikersTask(films, 0, films.length));
+    }
+
+    private long[] collectLikers(long[] films, int from, int to) {
+        int cap = properties.getLikersPerFilmCap();
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            size += Math.min(likesIndex.countLikers(films[i]), cap);
+        }
+        long[] likers = new long[size];
+        int position = 0;
+        for (int i = from; i < to; i++) {
+            position += likesIndex.copyLikers(films[i], likers, position, Math.min(cap, size - position));
+        }
+        Arrays.sort(likers, 0, position);
+        return position == size ? likers : Arrays.copyOf(likers, position);
+    }
+
+    private class CollectLikersTask extends RecursiveTask<long[]> {
+        private final long[] films;
+        private final int from;
+        private final int to;
+
+        private CollectLikersTask(long[] films, int from, int to) {
+            this.films = films;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= LEAF_FILMS) {
+                return collectLikers(films, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            CollectLikersTask left = new CollectLikersTask(films, from, middle);
+            left.fork();
+            long[] right = new CollectLikersTask(films, middle, to).compute();
+            return SortedLongArrays.merge(left.join(), right);
+        }
+    }
+
+    @Value
+    private static class Recommendations {
+        long[] ids;
+        long version;
+    }
+}
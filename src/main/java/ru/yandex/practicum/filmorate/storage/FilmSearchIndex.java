@@ -0,0 +1,293 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.SearchField;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleBinaryOperator;
+
+@Component
+@RequiredArgsConstructor
+public class FilmSearchIndex {
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MAX_PREFIX_TERMS = 50;
+    private static final double LIKES_WEIGHT = 0.3;
+    private static final Map<SearchField, Double> FIELD_WEIGHTS = Map.of(
+            SearchField.TITLE, 2.0,
+            SearchField.DESCRIPTION, 1.0);
+    private static final Set<String> STOP_WORDS = Set.of(
+            "и", "в", "во", "не", "на", "с", "со", "что", "как", "а", "но", "по", "к", "о", "об", "от", "из",
+            "за", "у", "для", "же", "ли", "бы", "то", "это", "его", "ее", "их", "он", "она", "они",
+            "the", "a", "an", "and", "or", "of", "in", "on", "to", "is");
+
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final Map<SearchField, NavigableMap<String, long[]>> postings = Map.of(
+            SearchField.TITLE, new ConcurrentSkipListMap<>(),
+            SearchField.DESCRIPTION, new ConcurrentSkipListMap<>());
+    private final Map<Long, Map<SearchField, Set<String>>> termsByFilm = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public Loader loader() {
+        return new Loader();
+    }
+
+    public void putFilm(Long filmId, String name, String description) {
+        Map<SearchField, Set<String>> terms = tokenize(name, description);
+        writeLock.lock();
+        try {
+            unindex(filmId);
+            terms.forEach((field, fieldTerms) -> fieldTerms.forEach(term ->
+                    postings.get(field).compute(term, (t, ids) -> SortedLongArrays.insert(ids, filmId))));
+            termsByFilm.put(filmId, terms);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void removeFilm(Long filmId) {
+        writeLock.lock();
+        try {
+            unindex(filmId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void unindex(Long filmId) {
+        Map<SearchField, Set<String>> terms = termsByFilm.remove(filmId);
+        if (terms == null) {
+            return;
+        }
+        terms.forEach((field, fieldTerms) -> fieldTerms.forEach(term ->
+                postings.get(field).computeIfPresent(term, (t, ids) -> SortedLongArrays.remove(ids, filmId))));
+    }
+
+    public long[] search(String query, Set<SearchField> fields, int offset, int limit) {
+        List<String> tokens = new ArrayList<>(tokenize(query));
+        if (tokens.isEmpty()) {
+            return SortedLongArrays.EMPTY;
+        }
+        int documents = Math.max(1, termsByFilm.size());
+        List<QueryTerm> queryTerms = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            queryTerms.add(expand(tokens.get(i), i == tokens.size() - 1, fields, documents));
+        }
+        queryTerms.sort(Comparator.comparingLong(QueryTerm::getFrequency));
+
+        ScoredIds matches = queryTerms.get(0).collect();
+        for (int i = 1; i < queryTerms.size() && matches.size > 0; i++) {
+            matches = ScoredIds.intersect(matches, queryTerms.get(i).collect());
+        }
+
+        TopIds top = new TopIds(offset + limit);
+        for (int i = 0; i < matches.size; i++) {
+            long filmId = matches.ids[i];
+            top.offer(filmId, matches.score(i) + LIKES_WEIGHT * Math.log1p(popularFilmsIndex.getLikes(filmId)));
+        }
+        long[] ids = top.ids();
+        return offset >= ids.length ? SortedLongArrays.EMPTY : Arrays.copyOfRange(ids, offset, ids.length);
+    }
+
+    private QueryTerm expand(String token, boolean prefix, Set<SearchField> fields, int documents) {
+        QueryTerm queryTerm = new QueryTerm();
+        for (SearchField field : fields) {
+            NavigableMap<String, long[]> fieldPostings = postings.get(field);
+            Collection<long[]> matches = prefix && token.length() >= MIN_PREFIX_LENGTH
+                    ? mostFrequent(fieldPostings.subMap(token, true, token + Character.MAX_VALUE, false).values())
+                    : Optional.ofNullable(fieldPostings.get(token)).map(List::of).orElse(List.of());
+            for (long[] ids : matches) {
+                double weight = FIELD_WEIGHTS.get(field) * Math.log(1.0 + (double) documents / Math.max(1, ids.length));
+                queryTerm.add(field, ids, weight);
+            }
+        }
+        return queryTerm;
+    }
+
+    private static Collection<long[]> mostFrequent(Collection<long[]> postingLists) {
+        PriorityQueue<long[]> top = new PriorityQueue<>(Comparator.comparingInt(ids -> ids.length));
+        for (long[] ids : postingLists) {
+            top.offer(ids);
+            if (top.size() > MAX_PREFIX_TERMS) {
+                top.poll();
+            }
+        }
+        return top;
+    }
+
+    private Map<SearchField, Set<String>> tokenize(String name, String description) {
+        Map<SearchField, Set<String>> terms = new EnumMap<>(SearchField.class);
+        Set<String> titleTerms = tokenize(name);
+        if (!titleTerms.isEmpty()) {
+            terms.put(SearchField.TITLE, titleTerms);
+        }
+        Set<String> descriptionTerms = tokenize(description);
+        if (!descriptionTerms.isEmpty()) {
+            terms.put(SearchField.DESCRIPTION, descriptionTerms);
+        }
+        return terms;
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                char lower = Character.toLowerCase(c);
+                token.append(lower == 'ё' ? 'е' : lower);
+            } else if (token.length() > 0) {
+                String term = token.toString();
+                if (!STOP_WORDS.contains(term)) {
+                    tokens.add(term);
+                }
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    private static class QueryTerm {
+        private final Map<SearchField, ScoredIds> fieldMatches = new EnumMap<>(SearchField.class);
+        private long frequency;
+
+        private void add(SearchField field, long[] ids, double weight) {
+            fieldMatches.merge(field, ScoredIds.of(ids, weight), (left, right) -> ScoredIds.union(left, right, Math::max));
+            frequency += ids.length;
+        }
+
+        private long getFrequency() {
+            return frequency;
+        }
+
+        private ScoredIds collect() {
+            ScoredIds result = null;
+            for (ScoredIds matches : fieldMatches.values()) {
+                result = result == null ? matches : ScoredIds.union(result, matches, Double::sum);
+            }
+            return result == null ? ScoredIds.EMPTY : result;
+        }
+    }
+
+    private static class ScoredIds {
+        private static final ScoredIds EMPTY = new ScoredIds(0);
+
+        private final long[] ids;
+        private final double[] scores;
+        private final double uniformScore;
+        private int size;
+
+        private ScoredIds(int capacity) {
+            ids = new long[capacity];
+            scores = new double[capacity];
+            uniformScore = 0.0;
+        }
+
+        private ScoredIds(long[] ids, double score) {
+            this.ids = ids;
+            this.scores = null;
+            this.uniformScore = score;
+            this.size = ids.length;
+        }
+
+        private static ScoredIds of(long[] ids, double score) {
+            return new ScoredIds(ids, score);
+        }
+
+        private double score(int index) {
+            return scores == null ? uniformScore : scores[index];
+        }
+
+        private static ScoredIds union(ScoredIds left, ScoredIds right, DoubleBinaryOperator combine) {
+            ScoredIds result = new ScoredIds(left.size + right.size);
+            int i = 0;
+            int j = 0;
+            while (i < left.size || j < right.size) {
+                if (j == right.size || i < left.size && left.ids[i] < right.ids[j]) {
+                    result.add(left.ids[i], left.score(i++));
+                } else if (i == left.size || right.ids[j] < left.ids[i]) {
+                    result.add(right.ids[j], right.score(j++));
+                } else {
+                    result.add(left.ids[i], combine.applyAsDouble(left.score(i++), right.score(j++)));
+                }
+            }
+            return result;
+        }
+
+        private static ScoredIds intersect(ScoredIds left, ScoredIds right) {
+            ScoredIds result = new ScoredIds(Math.min(left.size, right.size));
+            int i = 0;
+            int j = 0;
+            while (i < left.size && j < right.size) {
+                if (left.ids[i] < right.ids[j]) {
+                    i++;
+                } else if (right.ids[j] < left.ids[i]) {
+                    j++;
+                } else {
+                    result.add(left.ids[i], left.score(i++) + right.score(j++));
+                }
+            }
+            return result;
+        }
+
+        private void add(long id, double score) {
+            ids[size] = id;
+            scores[size++] = score;
+        }
+    }
+
+    public class Loader {
+        private final Map<SearchField, Map<String, LongBuffer>> buffers = new EnumMap<>(SearchField.class);
+        private final Map<Long, Map<SearchField, Set<String>>> terms = new HashMap<>();
+
+        private Loader() {
+        }
+
+        public void add(Long filmId, String name, String description) {
+            Map<SearchField, Set<String>> filmTerms = tokenize(name, description);
+            terms.put(filmId, filmTerms);
+            filmTerms.forEach((field, fieldTerms) -> fieldTerms.forEach(term -> buffers
+                    .computeIfAbsent(field, f -> new HashMap<>())
+                    .computeIfAbsent(term, t -> new LongBuffer())
+                    .add(filmId)));
+        }
+
+        public void load() {
+            writeLock.lock();
+            try {
+                postings.values().forEach(Map::clear);
+                termsByFilm.clear();
+                buffers.forEach((field, fieldBuffers) ->
+                        fieldBuffers.forEach((term, ids) -> postings.get(field).put(term, ids.toArray())));
+                termsByFilm.putAll(terms);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private static class LongBuffer {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
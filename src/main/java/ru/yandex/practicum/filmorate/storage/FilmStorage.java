@@ -1,25 +1,67 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.LikeStatus;
+import ru.yandex.practicum.filmorate.model.PopularFilmIds;
+import ru.yandex.practicum.filmorate.model.SearchField;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     List<Film> getAllFilms();
 
+    List<Film> getFilmsPage(Long afterId, Integer limit);
+
+    List<FilmSummary> getFilmSummariesPage(Long afterId, Integer limit);
+
+    void streamFilms(Consumer<Film> consumer);
+
     Film createFilm(Film film);
 
+    List<Film> createFilms(List<Film> films);
+
     Optional<Film> getFilm(Long id);
 
+    Optional<Long> getFilmVersion(Long id);
+
+    long getPopularFilmsVersion();
+
+    boolean isFilmExist(Long id);
+
+    Set<Long> getExistingFilmIds(Collection<Long> ids);
+
     Film updateFilm(Film film);
 
     void deleteFilm(Long id);
 
-    List<User> addLike(Long id, Long userId);
+    LikeStatus addLike(Long id, Long userId);
+
+    LikeStatus removeLike(Long id, Long userId);
+
+    List<Like> addLikes(List<Like> likes);
+
+    void streamLikes(Consumer<Like> consumer);
+
+    List<User> getLikes(Long id);
+
+    List<User> getLikesPage(Long id, Long afterUserId, Integer limit);
+
+    List<Film> getPopularFilms(Long count, Long genreId, Integer year);
+
+    PopularFilmIds getPopularFilmIds(Long count, Long genreId, Integer year);
+
+    List<Film> getFilmsByIds(List<Long> filmIds);
+
+    List<FilmSummary> getPopularFilmSummaries(Long count, Long genreId, Integer year);
 
-    List<User> removeLike(Long id, Long userId);
+    List<Film> getRecommendedFilms(Long userId, int limit);
 
-    List<Film> getPopularFilms(Long count);
+    List<Film> searchFilms(String query, Set<SearchField> fields, int offset, int limit);
 }
@@ -2,32 +2,80 @@ package ru.yandex.practicum.filmorate.storage;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.mapper.FilmsGenresMapper;
 import ru.yandex.practicum.filmorate.model.FilmGenre;
 
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Repository
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "type", havingValue = "jdbc", matchIfMissing = true)
 public class FilmsGenresDbStorage implements FilmsGenresStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     private final FilmsGenresMapper filmsGenresMapper;
+    private final PopularFilmsIndex popularFilmsIndex;
     private static final String SQL_QUERY_ADD_FILM_GENRE = "INSERT INTO films_genres(film_id, genre_id) VALUES (?, ?)";
-    private static final String SQL_QUERY_DELETE_GENRES = "DELETE FROM films_genres WHERE film_id = ?";
-    private static final String SQL_QUERY_SELECT_GENRES = "SELECT * FROM films_genres WHERE film_id = ?";
+    private static final String SQL_QUERY_DELETE_FILM_GENRE = "DELETE FROM films_genres WHERE film_id = ? AND genre_id = ?";
+    private static final String SQL_QUERY_SELECT_GENRES = "SELECT " + FilmsGenresMapper.COLUMNS + " FROM films_genres WHERE film_id = ?";
+    private static final String SQL_QUERY_SELECT_FILMS_GENRES = "SELECT " + FilmsGenresMapper.COLUMNS + " FROM films_genres WHERE film_id IN (:filmIds)";
 
     @Override
-    public void addFilmGenre(Long filmId, Long genreId) {
-        jdbcTemplate.update(SQL_QUERY_ADD_FILM_GENRE, filmId, genreId);
+    public void addFilmGenres(Long filmId, Collection<Long> genreIds) {
+        if (genreIds.isEmpty()) {
+            return;
+        }
+        Set<Long> uniqueGenreIds = new LinkedHashSet<>(genreIds);
+        jdbcTemplate.batchUpdate(SQL_QUERY_ADD_FILM_GENRE, toBatchArgs(filmId, uniqueGenreIds));
+        AfterCommit.run(() -> popularFilmsIndex.setGenres(filmId, uniqueGenreIds));
     }
 
     @Override
-    public void removeFilmGenres(Long filmId) {
-        jdbcTemplate.update(SQL_QUERY_DELETE_GENRES, filmId);
+    public void addFilmsGenres(Map<Long, ? extends Collection<Long>> genreIdsByFilm) {
+        Map<Long, Set<Long>> uniqueGenreIdsByFilm = new LinkedHashMap<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+        genreIdsByFilm.forEach((filmId, genreIds) -> {
+            if (genreIds.isEmpty()) {
+                return;
+            }
+            Set<Long> uniqueGenreIds = new LinkedHashSet<>(genreIds);
+            uniqueGenreIdsByFilm.put(filmId, uniqueGenreIds);
+            batchArgs.addAll(toBatchArgs(filmId, uniqueGenreIds));
+        });
+        if (batchArgs.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_QUERY_ADD_FILM_GENRE, batchArgs);
+        AfterCommit.run(() -> uniqueGenreIdsByFilm.forEach(popularFilmsIndex::setGenres));
+    }
+
+    @Override
+    public void setFilmGenres(Long filmId, Collection<Long> genreIds) {
+        Set<Long> currentGenreIds = getFilmGenres(filmId).stream()
+                .map(FilmGenre::getGenreId)
+                .collect(Collectors.toSet());
+        Set<Long> addedGenreIds = new LinkedHashSet<>(genreIds);
+        addedGenreIds.removeAll(currentGenreIds);
+        Set<Long> removedGenreIds = new LinkedHashSet<>(currentGenreIds);
+        removedGenreIds.removeAll(genreIds);
+
+        if (!removedGenreIds.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_QUERY_DELETE_FILM_GENRE, toBatchArgs(filmId, removedGenreIds));
+        }
+        if (!addedGenreIds.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_QUERY_ADD_FILM_GENRE, toBatchArgs(filmId, addedGenreIds));
+        }
+        if (!removedGenreIds.isEmpty() || !addedGenreIds.isEmpty()) {
+            Set<Long> newGenreIds = new LinkedHashSet<>(genreIds);
+            AfterCommit.run(() -> popularFilmsIndex.setGenres(filmId, newGenreIds));
+        }
     }
 
     @Override
@@ -35,4 +83,19 @@ public class FilmsGenresDbStorage implements FilmsGenresStorage {
         return jdbcTemplate.query(SQL_QUERY_SELECT_GENRES, filmsGenresMapper, filmId);
     }
 
+    @Override
+    public List<FilmGenre> getFilmsGenres(Collection<Long> filmIds) {
+        if (filmIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return namedParameterJdbcTemplate.query(SQL_QUERY_SELECT_FILMS_GENRES, Map.of("filmIds", filmIds),
+                filmsGenresMapper);
+    }
+
+    private List<Object[]> toBatchArgs(Long filmId, Collection<Long> genreIds) {
+        return genreIds.stream()
+                .map(genreId -> new Object[]{filmId, genreId})
+                .collect(Collectors.toList());
+    }
+
 }
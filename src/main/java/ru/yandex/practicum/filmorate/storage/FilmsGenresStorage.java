@@ -2,12 +2,18 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.FilmGenre;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface FilmsGenresStorage {
-    void addFilmGenre(Long filmId, Long userId);
+    void addFilmGenres(Long filmId, Collection<Long> genreIds);
 
-    void removeFilmGenres(Long filmId);
+    void addFilmsGenres(Map<Long, ? extends Collection<Long>> genreIdsByFilm);
+
+    void setFilmGenres(Long filmId, Collection<Long> genreIds);
 
     List<FilmGenre> getFilmGenres(Long filmId);
+
+    List<FilmGenre> getFilmsGenres(Collection<Long> filmIds);
 }
@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.FriendRecommendationProperties;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class FriendRecommender {
+    private final FriendsGraph friendsGraph;
+    private final FriendRecommendationProperties properties;
+    private final Cache<Long, long[]> cache;
+    private final AtomicLong generations = new AtomicLong();
+
+    public FriendRecommender(FriendsGraph friendsGraph, FriendRecommendationProperties properties) {
+        this.friendsGraph = friendsGraph;
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheSize())
+                .expireAfterWrite(properties.getCacheTtl())
+                .build();
+    }
+
+    public long[] recommend(Long userId, int limit) {
+        long[] recommendations = cache.getIfPresent(userId);
+        if (recommendations == null) {
+            long generation = generations.get();
+            Ranking ranking = rank(userId);
+            recommendations = ranking.getIds();
+            if (ranking.isComplete()) {
+                store(userId, recommendations, generation);
+            } else {
+                log.warn("Поиск рекомендаций для пользователя {} прерван по времени", userId);
+            }
+        }
+        return recommendations.length <= limit ? recommendations.clone() : Arrays.copyOf(recommendations, limit);
+    }
+
+    public void invalidate(Long userId) {
+        generations.incrementAndGet();
+        cache.invalidate(userId);
+        for (long followerId : friendsGraph.getFollowers(userId)) {
+            cache.invalidate(followerId);
+        }
+    }
+
+    public void invalidateAll() {
+        generations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private void store(Long userId, long[] recommendations, long generation) {
+        cache.asMap().compute(userId, (id, current) -> generations.get() == generation ? recommendations : current);
+    }
+
+    private Ranking rank(Long userId) {
+        long deadline = System.nanoTime() + properties.getTimeBudget().toNanos();
+        int fanOutCap = properties.getFanOutCap();
+        long[] friends = friendsGraph.getFriends(userId);
+        long[] candidates = new long[0];
+        int size = 0;
+        boolean complete = true;
+        for (int i = 0; i < Math.min(friends.length, fanOutCap); i++) {
+            if (System.nanoTime() > deadline) {
+                complete = false;
+                break;
+            }
+            long[] friendsOfFriend = friendsGraph.getFriends(friends[i]);
+            int count = Math.min(friendsOfFriend.length, fanOutCap);
+            if (size + count > candidates.length) {
+                candidates = Arrays.copyOf(candidates, Math.max(candidates.length * 2, size + count));
+            }
+            System.arraycopy(friendsOfFriend, 0, candidates, size, count);
+            size += count;
+        }
+        Arrays.sort(candidates, 0, size);
+        TopIds top = new TopIds(properties.getMaxResults());
+        int start = 0;
+        while (start < size) {
+            if (System.nanoTime() > deadline) {
+                complete = false;
+                break;
+            }
+            long candidateId = candidates[start];
+            int end = start + 1;
+            while (end < size && candidates[end] == candidateId) {
+                end++;
+            }
+            if (candidateId != userId && !SortedLongArrays.contains(friends, candidateId)) {
+                top.offer(candidateId, end - start);
+            }
+            start = end;
+        }
+        return new Ranking(top.ids(), complete && System.nanoTime() <= deadline);
+    }
+
+    @Value
+    private static class Ranking {
+        long[] ids;
+        boolean complete;
+    }
+}
@@ -2,51 +2,132 @@ package ru.yandex.practicum.filmorate.storage;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
-import ru.yandex.practicum.filmorate.mapper.UserMapper;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.DomainEvent;
+import ru.yandex.practicum.filmorate.model.DomainEventType;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
 
+import javax.annotation.PostConstruct;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Repository
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "type", havingValue = "jdbc", matchIfMissing = true)
 public class FriendsDbStorage implements FriendsStorage {
     private final JdbcTemplate jdbcTemplate;
-    private final UserMapper userMapper;
+    private final UserStorage userStorage;
+    private final FriendsGraph friendsGraph;
+    private final FriendRecommender friendRecommender;
+    private final DomainEventOutbox domainEventOutbox;
     private static final String SQL_QUERY_ADD_FRIENDSHIP = "INSERT INTO FRIENDSHIP(user_id, friend_id, status_id) VALUES (?, ?, ?)";
     private static final String SQL_DELETE_FRIENDSHIP = "DELETE FROM FRIENDSHIP WHERE user_id = ? AND friend_id = ?";
-    private static final String SQL_QUERY_GET_FRIENDS = "SELECT * FROM USERS u " +
-            "JOIN FRIENDSHIP f ON f.friend_id = u.id " +
-            "WHERE f.user_id = ?";
-    private static final String SQL_QUERY_GET_COMMON_FRIENDS = "SELECT * FROM USERS u " +
-            "JOIN FRIENDSHIP f1 ON f1.friend_id = u.id " +
-            "JOIN FRIENDSHIP f2 ON f1.friend_id = f2.friend_id " +
-            "WHERE f1.user_id = ? AND f2.user_id= ?;";
+    private static final String SQL_QUERY_ADD_FRIENDSHIP_IF_ABSENT = "INSERT INTO FRIENDSHIP(user_id, friend_id, status_id) " +
+            "SELECT ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM FRIENDSHIP WHERE user_id = ? AND friend_id = ?)";
+    private static final String SQL_QUERY_GET_ALL_FRIENDSHIPS = "SELECT user_id, friend_id FROM FRIENDSHIP";
+    private static final String SQL_QUERY_GET_ALL_FRIENDSHIPS_ORDERED = "SELECT user_id, friend_id FROM FRIENDSHIP " +
+            "ORDER BY user_id, friend_id";
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final long UNCONFIRMED_STATUS_ID = 2L;
+
+    @PostConstruct
+    public void init() {
+        Map<Long, List<Long>> friendsByUser = new HashMap<>();
+        jdbcTemplate.query(SQL_QUERY_GET_ALL_FRIENDSHIPS, rs -> {
+            friendsByUser.computeIfAbsent(rs.getLong("user_id"), id -> new ArrayList<>()).add(rs.getLong("friend_id"));
+        });
+        friendsGraph.rebuild(friendsByUser);
+        log.info("Граф друзей построен, пользователей: {}", friendsByUser.size());
+    }
 
     @Override
+    @Transactional
     public void addFriends(Long userId, Long friendId) {
-        jdbcTemplate.update(SQL_QUERY_ADD_FRIENDSHIP, userId, friendId, 2);
+        jdbcTemplate.update(SQL_QUERY_ADD_FRIENDSHIP, userId, friendId, UNCONFIRMED_STATUS_ID);
+        domainEventOutbox.append(DomainEventType.FRIENDSHIP_ADDED, userId, friendId);
+        AfterCommit.run(() -> {
+            friendsGraph.addFriend(userId, friendId);
+            friendRecommender.invalidate(userId);
+        });
     }
 
     @Override
+    @Transactional
     public void removeFriends(Long userId, Long friendId) {
-        jdbcTemplate.update(SQL_DELETE_FRIENDSHIP, userId, friendId);
+        if (jdbcTemplate.update(SQL_DELETE_FRIENDSHIP, userId, friendId) > 0) {
+            domainEventOutbox.append(DomainEventType.FRIENDSHIP_REMOVED, userId, friendId);
+        }
+        AfterCommit.run(() -> {
+            friendsGraph.removeFriend(userId, friendId);
+            friendRecommender.invalidate(userId);
+        });
+    }
+
+    @Override
+    @Transactional
+    public void addFriendships(List<Friendship> friendships) {
+        if (friendships.isEmpty()) {
+            return;
+        }
+        int[] addedCounts = jdbcTemplate.batchUpdate(SQL_QUERY_ADD_FRIENDSHIP_IF_ABSENT, friendships.stream()
+                .map(friendship -> new Object[]{friendship.getUserId(), friendship.getFriendId(), UNCONFIRMED_STATUS_ID,
+                        friendship.getUserId(), friendship.getFriendId()})
+                .collect(Collectors.toList()));
+        List<DomainEvent> events = new ArrayList<>();
+        for (int i = 0; i < addedCounts.length; i++) {
+            if (addedCounts[i] > 0) {
+                events.add(DomainEvent.builder()
+                        .type(DomainEventType.FRIENDSHIP_ADDED)
+                        .entityId(friendships.get(i).getUserId())
+                        .relatedId(friendships.get(i).getFriendId())
+                        .build());
+            }
+        }
+        domainEventOutbox.appendAll(events);
+        AfterCommit.run(() -> friendships.forEach(friendship -> {
+            friendsGraph.addFriend(friendship.getUserId(), friendship.getFriendId());
+            friendRecommender.invalidate(friendship.getUserId());
+        }));
+    }
+
+    @Override
+    public void streamFriendships(Consumer<Friendship> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(SQL_QUERY_GET_ALL_FRIENDSHIPS_ORDERED,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            return stmt;
+        }, rs -> {
+            Friendship friendship = new Friendship();
+            friendship.setUserId(rs.getLong("user_id"));
+            friendship.setFriendId(rs.getLong("friend_id"));
+            consumer.accept(friendship);
+        });
     }
 
     @Override
     public List<User> getFriends(Long userId) {
-        return jdbcTemplate.query(SQL_QUERY_GET_FRIENDS, userMapper, userId);
+        return userStorage.getUsersByIds(friendsGraph.getFriends(userId));
     }
 
     @Override
     public List<User> getCommonFriends(Long id, Long otherId) {
-        return jdbcTemplate.query(SQL_QUERY_GET_COMMON_FRIENDS, userMapper, id, otherId);
+        return userStorage.getUsersByIds(friendsGraph.getCommonFriends(id, otherId));
+    }
+
+    @Override
+    public List<User> getFriendRecommendations(Long userId, int limit) {
+        return userStorage.getUsersByIds(friendRecommender.recommend(userId, limit));
     }
 }
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class FriendsGraph {
+    private static final long[] EMPTY = SortedLongArrays.EMPTY;
+
+    private final Map<Long, long[]> friends = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> followers = new ConcurrentHashMap<>();
+
+    public void rebuild(Map<Long, List<Long>> friendsByUser) {
+        Map<Long, List<Long>> followersByUser = new HashMap<>();
+        friends.clear();
+        followers.clear();
+        friendsByUser.forEach((userId, friendIds) -> {
+            friends.put(userId, SortedLongArrays.of(friendIds));
+            friendIds.forEach(friendId -> followersByUser.computeIfAbsent(friendId, id -> new ArrayList<>()).add(userId));
+        });
+        followersByUser.forEach((userId, followerIds) -> followers.put(userId, SortedLongArrays.of(followerIds)));
+    }
+
+    public void addFriend(Long userId, Long friendId) {
+        friends.compute(userId, (id, ids) -> SortedLongArrays.insert(ids, friendId));
+        followers.compute(friendId, (id, ids) -> SortedLongArrays.insert(ids, userId));
+    }
+
+    public void removeFriend(Long userId, Long friendId) {
+        friends.computeIfPresent(userId, (id, ids) -> SortedLongArrays.remove(ids, friendId));
+        followers.computeIfPresent(friendId, (id, ids) -> SortedLongArrays.remove(ids, userId));
+    }
+
+    public void removeUser(Long userId) {
+        for (long friendId : friends.getOrDefault(userId, EMPTY)) {
+            followers.computeIfPresent(friendId, (id, ids) -> SortedLongArrays.remove(ids, userId));
+        }
+        for (long followerId : followers.getOrDefault(userId, EMPTY)) {
+            friends.computeIfPresent(followerId, (id, ids) -> SortedLongArrays.remove(ids, userId));
+        }
+        friends.remove(userId);
+        followers.remove(userId);
+    }
+
+    public long[] getFriends(Long userId) {
+        return friends.getOrDefault(userId, EMPTY).clone();
+    }
+
+    public long[] getFollowers(Long userId) {
+        return followers.getOrDefault(userId, EMPTY).clone();
+    }
+
+    public long[] getCommonFriends(Long userId, Long otherId) {
+        return SortedLongArrays.intersect(friends.getOrDefault(userId, EMPTY), friends.getOrDefault(otherId, EMPTY));
+    }
+}
@@ -1,15 +1,23 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface FriendsStorage {
     void addFriends(Long userId, Long friendId);
 
     void removeFriends(Long userId, Long friendId);
 
+    void addFriendships(List<Friendship> friendships);
+
+    void streamFriendships(Consumer<Friendship> consumer);
+
     List<User> getFriends(Long userId);
 
     List<User> getCommonFriends(Long id, Long otherId);
+
+    List<User> getFriendRecommendations(Long userId, int limit);
 }
@@ -3,23 +3,27 @@ package ru.yandex.practicum.filmorate.storage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.mapper.GenreMapper;
 import ru.yandex.practicum.filmorate.model.Genre;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Slf4j
 @Repository
 @RequiredArgsConstructor
 public class GenreDbStorage implements GenreStorage {
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     private final GenreMapper genreMapper;
-    private static final String SQL_QUERY_GET_ALL_GENRES = "SELECT * FROM GENRES";
+    private static final String SQL_QUERY_GET_ALL_GENRES = "SELECT " + GenreMapper.COLUMNS + " FROM GENRES";
 
-    private static final String SQL_QUERY_GET_GENRE_BY_ID = "SELECT * FROM GENRES " +
+    private static final String SQL_QUERY_GET_GENRE_BY_ID = "SELECT " + GenreMapper.COLUMNS + " FROM GENRES " +
             "WHERE ID = ?";
+    private static final String SQL_QUERY_GET_GENRES_BY_IDS = "SELECT " + GenreMapper.COLUMNS + " FROM GENRES WHERE ID IN (:ids)";
+    private static final String SQL_QUERY_GENRE_EXISTS = "SELECT EXISTS(SELECT 1 FROM GENRES WHERE ID = ?)";
+    private static final String SQL_QUERY_GET_EXISTING_GENRE_IDS = "SELECT ID FROM GENRES WHERE ID IN (:ids)";
 
     @Override
     public List<Genre> getAllGenres() {
@@ -34,4 +38,26 @@ public class GenreDbStorage implements GenreStorage {
         }
         return Optional.of(genreList.get(0));
     }
+
+    @Override
+    public List<Genre> getGenresByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return namedParameterJdbcTemplate.query(SQL_QUERY_GET_GENRES_BY_IDS, Map.of("ids", ids), genreMapper);
+    }
+
+    @Override
+    public boolean isGenreExist(Long id) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(SQL_QUERY_GENRE_EXISTS, Boolean.class, id));
+    }
+
+    @Override
+    public Set<Long> getExistingGenreIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(SQL_QUERY_GET_EXISTING_GENRE_IDS,
+                Map.of("ids", ids), Long.class));
+    }
 }
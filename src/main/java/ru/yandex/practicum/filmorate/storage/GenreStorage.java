@@ -2,11 +2,19 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Genre;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface GenreStorage {
     List<Genre> getAllGenres();
 
     Optional<Genre> getGenre(Long id);
+
+    List<Genre> getGenresByIds(Collection<Long> ids);
+
+    boolean isGenreExist(Long id);
+
+    Set<Long> getExistingGenreIds(Collection<Long> ids);
 }
@@ -0,0 +1,487 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.MemoryStorageProperties;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.MemoryJournalEntry.Operation;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "type", havingValue = "memory")
+public class InMemoryDatabase {
+    private final MemoryStorageProperties properties;
+    private final ObjectMapper objectMapper;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final LikesIndex likesIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final FilmRecommender filmRecommender;
+    private final FriendsGraph friendsGraph;
+    private final FriendRecommender friendRecommender;
+    private final NavigableMap<Long, Film> films = new ConcurrentSkipListMap<>();
+    private final NavigableMap<Long, User> users = new ConcurrentSkipListMap<>();
+    private final Map<Long, long[]> filmGenres = new ConcurrentHashMap<>();
+    private final Map<Long, Long> filmVersions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> userVersions = new ConcurrentHashMap<>();
+    private final AtomicLong filmIds = new AtomicLong();
+    private final AtomicLong userIds = new AtomicLong();
+    private final AtomicLong versions = new AtomicLong();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private MemoryJournal journal;
+    private ScheduledExecutorService snapshotExecutor;
+
+    @PostConstruct
+    public void start() {
+        load();
+        long interval = properties.getSnapshotInterval().toMillis();
+        if (interval > 0) {
+            snapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "memory-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotExecutor.scheduleWithFixedDelay(this::snapshot, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (snapshotExecutor != null) {
+            snapshotExecutor.shutdownNow();
+        }
+        snapshot();
+        journal.close();
+    }
+
+    public void load() {
+        writeLock.lock();
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+            journal = new MemoryJournal(Path.of(properties.getDirectory()), objectMapper, properties.isFsync());
+            Loader loader = new Loader();
+            long entries = journal.replay(loader::apply);
+            loader.finish();
+            log.info("Хранилище в памяти загружено: записей журнала {}, фильмов {}, пользователей {}",
+                    entries, films.size(), users.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            List<MemoryJournalEntry> entries = new ArrayList<>();
+            MemoryJournal snapshotJournal;
+            int filmCount;
+            int userCount;
+            writeLock.lock();
+            try {
+                entries.add(MemoryJournalEntry.builder()
+                        .operation(Operation.SEQUENCES)
+                        .id(filmIds.get())
+                        .otherId(userIds.get())
+                        .build());
+                users.values().forEach(user -> entries.add(MemoryJournalEntry.builder()
+                        .operation(Operation.PUT_USER)
+                        .version(userVersions.get(user.getId()))
+                        .user(user)
+                        .build()));
+                users.keySet().forEach(userId -> {
+                    for (long friendId : friendsGraph.getFriends(userId)) {
+                        entries.add(pair(Operation.ADD_FRIEND, userId, friendId));
+                    }
+                });
+                films.values().forEach(film -> {
+                    entries.add(MemoryJournalEntry.builder()
+                            .operation(Operation.PUT_FILM)
+                            .version(filmVersions.get(film.getId()))
+                            .film(film)
+                            .build());
+                    long[] genreIds = filmGenres.get(film.getId());
+                    if (genreIds != null) {
+                        entries.add(genresEntry(film.getId(), genreIds));
+                    }
+                    for (long userId : likesIndex.getLikers(film.getId())) {
+                        entries.add(pair(Operation.ADD_LIKE, film.getId(), userId));
+                    }
+                });
+                filmCount = films.size();
+                userCount = users.size();
+                journal.rotate();
+                snapshotJournal = journal;
+            } finally {
+                writeLock.unlock();
+            }
+            snapshotJournal.writeSnapshot(entries);
+            log.info("Снимок хранилища в памяти записан: фильмов {}, пользователей {}", filmCount, userCount);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    public Film createFilm(Film film) {
+        writeLock.lock();
+        try {
+            film.setId(filmIds.incrementAndGet());
+            putFilm(film);
+            return film;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Film updateFilm(Film film) {
+        writeLock.lock();
+        try {
+            putFilm(film);
+            return film;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void deleteFilm(Long filmId) {
+        writeLock.lock();
+        try {
+            journal.append(MemoryJournalEntry.builder().operation(Operation.DELETE_FILM).id(filmId).build());
+            films.remove(filmId);
+            filmGenres.remove(filmId);
+            filmVersions.remove(filmId);
+            popularFilmsIndex.removeFilm(filmId);
+            likesIndex.removeFilm(filmId);
+            filmSearchIndex.removeFilm(filmId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void setFilmGenres(Long filmId, Collection<Long> genreIds) {
+        writeLock.lock();
+        try {
+            long[] sortedGenreIds = SortedLongArrays.of(genreIds);
+            if (Arrays.equals(sortedGenreIds, filmGenres.getOrDefault(filmId, SortedLongArrays.EMPTY))) {
+                return;
+            }
+            journal.append(genresEntry(filmId, sortedGenreIds));
+            filmGenres.put(filmId, sortedGenreIds);
+            popularFilmsIndex.setGenres(filmId, genreIds);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public User createUser(User user) {
+        writeLock.lock();
+        try {
+            user.setId(userIds.incrementAndGet());
+            putUser(user);
+            return user;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public User updateUser(User user) {
+        writeLock.lock();
+        try {
+            putUser(user);
+            return user;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void deleteUser(Long userId) {
+        writeLock.lock();
+        try {
+            journal.append(MemoryJournalEntry.builder().operation(Operation.DELETE_USER).id(userId).build());
+            for (long filmId : likesIndex.getLikedFilms(userId)) {
+                popularFilmsIndex.changeLikes(filmId, -1);
+            }
+            users.remove(userId);
+            userVersions.remove(userId);
+            likesIndex.removeUser(userId);
+            friendsGraph.removeUser(userId);
+            friendRecommender.invalidateAll();
+            filmRecommender.invalidate(userId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean addLike(Long filmId, Long userId) {
+        writeLock.lock();
+        try {
+            if (likesIndex.hasLike(filmId, userId)) {
+                return false;
+            }
+            journal.append(pair(Operation.ADD_LIKE, filmId, userId));
+            likesIndex.addLike(filmId, userId);
+            popularFilmsIndex.changeLikes(filmId, 1);
+            filmRecommender.invalidate(userId);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean removeLike(Long filmId, Long userId) {
+        writeLock.lock();
+        try {
+            if (!likesIndex.hasLike(filmId, userId)) {
+                return false;
+            }
+            journal.append(pair(Operation.REMOVE_LIKE, filmId, userId));
+            likesIndex.removeLike(filmId, userId);
+            popularFilmsIndex.changeLikes(filmId, -1);
+            filmRecommender.invalidate(userId);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void addFriend(Long userId, Long friendId) {
+        writeLock.lock();
+        try {
+            if (SortedLongArrays.contains(friendsGraph.getFriends(userId), friendId)) {
+                return;
+            }
+            journal.append(pair(Operation.ADD_FRIEND, userId, friendId));
+            friendsGraph.addFriend(userId, friendId);
+            friendRecommender.invalidate(userId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void removeFriend(Long userId, Long friendId) {
+        writeLock.lock();
+        try {
+            if (!SortedLongArrays.contains(friendsGraph.getFriends(userId), friendId)) {
+                return;
+            }
+            journal.append(pair(Operation.REMOVE_FRIEND, userId, friendId));
+            friendsGraph.removeFriend(userId, friendId);
+            friendRecommender.invalidate(userId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public NavigableMap<Long, Film> getFilms() {
+        return Collections.unmodifiableNavigableMap(films);
+    }
+
+    public NavigableMap<Long, User> getUsers() {
+        return Collections.unmodifiableNavigableMap(users);
+    }
+
+    public long[] getFilmGenres(Long filmId) {
+        return filmGenres.getOrDefault(filmId, SortedLongArrays.EMPTY);
+    }
+
+    public Optional<Long> getFilmVersion(Long filmId) {
+        return Optional.ofNullable(filmVersions.get(filmId));
+    }
+
+    public Optional<Long> getUserVersion(Long userId) {
+        return Optional.ofNullable(userVersions.get(userId));
+    }
+
+    private void putFilm(Film film) {
+        Film stored = copyFilm(film);
+        long version = versions.incrementAndGet();
+        journal.append(MemoryJournalEntry.builder().operation(Operation.PUT_FILM).version(version).film(stored).build());
+        boolean created = films.put(stored.getId(), stored) == null;
+        filmVersions.put(stored.getId(), version);
+        Integer releaseYear = stored.getReleaseDate() == null ? null : stored.getReleaseDate().getYear();
+        if (created) {
+            popularFilmsIndex.addFilm(stored.getId(), releaseYear);
+        } else {
+            popularFilmsIndex.setReleaseYear(stored.getId(), releaseYear);
+        }
+        filmSearchIndex.putFilm(stored.getId(), stored.getName(), stored.getDescription());
+    }
+
+    private void putUser(User user) {
+        User stored = copyUser(user);
+        long version = versions.incrementAndGet();
+        journal.append(MemoryJournalEntry.builder().operation(Operation.PUT_USER).version(version).user(stored).build());
+        users.put(stored.getId(), stored);
+        userVersions.put(stored.getId(), version);
+    }
+
+    static Film copyFilm(Film film) {
+        return Film.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .rate(film.getRate())
+                .mpa(film.getMpa() == null ? null : Mpa.builder().id(film.getMpa().getId()).build())
+                .build();
+    }
+
+    static User copyUser(User user) {
+        return User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .login(user.getLogin())
+                .name(user.getName())
+                .birthday(user.getBirthday())
+                .build();
+    }
+
+    private static MemoryJournalEntry pair(Operation operation, long id, long otherId) {
+        return MemoryJournalEntry.builder().operation(operation).id(id).otherId(otherId).build();
+    }
+
+    private static MemoryJournalEntry genresEntry(long filmId, long[] genreIds) {
+        List<Long> ids = new ArrayList<>(genreIds.length);
+        for (long genreId : genreIds) {
+            ids.add(genreId);
+        }
+        return MemoryJournalEntry.builder().operation(Operation.SET_FILM_GENRES).id(filmId).ids(ids).build();
+    }
+
+    private class Loader {
+        private final Map<Long, Set<Long>> likers = new HashMap<>();
+        private final Map<Long, Set<Long>> likedFilms = new HashMap<>();
+        private final Map<Long, Set<Long>> friends = new HashMap<>();
+        private final Map<Long, Set<Long>> followers = new HashMap<>();
+        private long maxVersion;
+
+        private Loader() {
+            films.clear();
+            users.clear();
+            filmGenres.clear();
+            filmVersions.clear();
+            userVersions.clear();
+            filmIds.set(0);
+            userIds.set(0);
+        }
+
+        private void apply(MemoryJournalEntry entry) {
+            switch (entry.getOperation()) {
+                case SEQUENCES:
+                    filmIds.accumulateAndGet(entry.getId(), Math::max);
+                    userIds.accumulateAndGet(entry.getOtherId(), Math::max);
+                    break;
+                case PUT_FILM:
+                    films.put(entry.getFilm().getId(), entry.getFilm());
+                    filmVersions.put(entry.getFilm().getId(), entry.getVersion());
+                    filmIds.accumulateAndGet(entry.getFilm().getId(), Math::max);
+                    maxVersion = Math.max(maxVersion, entry.getVersion());
+                    break;
+                case DELETE_FILM:
+                    films.remove(entry.getId());
+                    filmGenres.remove(entry.getId());
+                    filmVersions.remove(entry.getId());
+                    unlink(likers, likedFilms, entry.getId());
+                    break;
+                case SET_FILM_GENRES:
+                    filmGenres.put(entry.getId(), SortedLongArrays.of(entry.getIds()));
+                    break;
+                case PUT_USER:
+                    users.put(entry.getUser().getId(), entry.getUser());
+                    userVersions.put(entry.getUser().getId(), entry.getVersion());
+                    userIds.accumulateAndGet(entry.getUser().getId(), Math::max);
+                    maxVersion = Math.max(maxVersion, entry.getVersion());
+                    break;
+                case DELETE_USER:
+                    users.remove(entry.getId());
+                    userVersions.remove(entry.getId());
+                    unlink(likedFilms, likers, entry.getId());
+                    unlink(friends, followers, entry.getId());
+                    unlink(followers, friends, entry.getId());
+                    break;
+                case ADD_LIKE:
+                    link(likers, likedFilms, entry.getId(), entry.getOtherId(), true);
+                    break;
+                case REMOVE_LIKE:
+                    link(likers, likedFilms, entry.getId(), entry.getOtherId(), false);
+                    break;
+                case ADD_FRIEND:
+                    link(friends, followers, entry.getId(), entry.getOtherId(), true);
+                    break;
+                case REMOVE_FRIEND:
+                    link(friends, followers, entry.getId(), entry.getOtherId(), false);
+                    break;
+            }
+        }
+
+        private void finish() {
+            Map<Long, long[]> likersByFilm = toArrays(likers);
+            Map<Long, Long> likesCounts = new HashMap<>();
+            Map<Long, Integer> releaseYears = new HashMap<>();
+            FilmSearchIndex.Loader searchLoader = filmSearchIndex.loader();
+            films.values().forEach(film -> {
+                likesCounts.put(film.getId(), (long) likersByFilm.getOrDefault(film.getId(), SortedLongArrays.EMPTY).length);
+                if (film.getReleaseDate() != null) {
+                    releaseYears.put(film.getId(), film.getReleaseDate().getYear());
+                }
+                searchLoader.add(film.getId(), film.getName(), film.getDescription());
+            });
+            popularFilmsIndex.rebuild(likesCounts, releaseYears, filmGenres);
+            likesIndex.rebuild(toArrays(likedFilms), likersByFilm);
+            searchLoader.load();
+            Map<Long, List<Long>> friendsByUser = new HashMap<>();
+            friends.forEach((userId, friendIds) -> friendsByUser.put(userId, new ArrayList<>(friendIds)));
+            friendsGraph.rebuild(friendsByUser);
+            friendRecommender.invalidateAll();
+            versions.set(Math.max(System.currentTimeMillis(), maxVersion));
+        }
+
+        private void link(Map<Long, Set<Long>> forward, Map<Long, Set<Long>> backward, Long id, Long otherId,
+                          boolean add) {
+            if (add) {
+                forward.computeIfAbsent(id, key -> new HashSet<>()).add(otherId);
+                backward.computeIfAbsent(otherId, key -> new HashSet<>()).add(id);
+            } else {
+                Optional.ofNullable(forward.get(id)).ifPresent(ids -> ids.remove(otherId));
+                Optional.ofNullable(backward.get(otherId)).ifPresent(ids -> ids.remove(id));
+            }
+        }
+
+        private void unlink(Map<Long, Set<Long>> forward, Map<Long, Set<Long>> backward, Long id) {
+            Set<Long> otherIds = forward.remove(id);
+            if (otherIds != null) {
+                otherIds.forEach(otherId -> Optional.ofNullable(backward.get(otherId)).ifPresent(ids -> ids.remove(id)));
+            }
+        }
+
+        private Map<Long, long[]> toArrays(Map<Long, Set<Long>> source) {
+            Map<Long, long[]> result = new HashMap<>();
+            source.forEach((id, ids) -> {
+                if (!ids.isEmpty()) {
+                    result.put(id, SortedLongArrays.of(ids));
+                }
+            });
+            return result;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.LikeStatus;
+import ru.yandex.practicum.filmorate.model.PopularFilmIds;
+import ru.yandex.practicum.filmorate.model.SearchField;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "type", havingValue = "memory")
+public class InMemoryFilmStorage implements FilmStorage {
+    private final InMemoryDatabase database;
+    private final UserStorage userStorage;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final LikesIndex likesIndex;
+    private final FilmRecommender filmRecommender;
+    private final FilmSearchIndex filmSearchIndex;
+
+    @Override
+    public List<Film> getAllFilms() {
+        return database.getFilms().values().stream()
+                .map(InMemoryDatabase::copyFilm)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Film> getFilmsPage(Long afterId, Integer limit) {
+        return database.getFilms().tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(InMemoryDatabase::copyFilm)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<FilmSummary> getFilmSummariesPage(Long afterId, Integer limit) {
+        return database.getFilms().tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(this::toSummary)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamFilms(Consumer<Film> consumer) {
+        database.getFilms().values().forEach(film -> consumer.accept(InMemoryDatabase.copyFilm(film)));
+    }
+
+    @Override
+    public Film createFilm(Film film) {
+        database.createFilm(film);
+        log.info("Фильм добавлен");
+        return film;
+    }
+
+    @Override
+    public List<Film> createFilms(List<Film> films) {
+        films.forEach(database::createFilm);
+        log.info("Добавлен пакет фильмов: {}", films.size());
+        return films;
+    }
+
+    @Override
+    public Optional<Film> getFilm(Long id) {
+        return Optional.ofNullable(database.getFilms().get(id)).map(InMemoryDatabase::copyFilm);
+    }
+
+    @Override
+    public Optional<Long> getFilmVersion(Long id) {
+        return database.getFilmVersion(id);
+    }
+
+    @Override
+    public long getPopularFilmsVersion() {
+        return popularFilmsIndex.getVersion();
+    }
+
+    @Override
+    public boolean isFilmExist(Long id) {
+        return database.getFilms().containsKey(id);
+    }
+
+    @Override
+    public Set<Long> getExistingFilmIds(Collection<Long> ids) {
+        return ids.stream()
+                .filter(database.getFilms()::containsKey)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        database.updateFilm(film);
+        log.info("Фильм обновлен");
+        return film;
+    }
+
+    @Override
+    public void deleteFilm(Long id) {
+        database.deleteFilm(id);
+        log.info("Фильм удален");
+    }
+
+    @Override
+    public LikeStatus addLike(Long filmId, Long userId) {
+        database.addLike(filmId, userId);
+        return getLikeStatus(filmId, userId, true);
+    }
+
+    @Override
+    public LikeStatus removeLike(Long filmId, Long userId) {
+        database.removeLike(filmId, userId);
+        return getLikeStatus(filmId, userId, false);
+    }
+
+    @Override
+    public List<Like> addLikes(List<Like> likes) {
+        likes.forEach(like -> database.addLike(like.getFilmId(), like.getUserId()));
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void streamLikes(Consumer<Like> consumer) {
+        for (Long filmId : database.getFilms().keySet()) {
+            for (long userId : likesIndex.getLikers(filmId)) {
+                consumer.accept(Like.builder().filmId(filmId).userId(userId).build());
+            }
+        }
+    }
+
+    @Override
+    public List<User> getLikes(Long filmId) {
+        return userStorage.getUsersByIds(likesIndex.getLikers(filmId));
+    }
+
+    @Override
+    public List<User> getLikesPage(Long filmId, Long afterUserId, Integer limit) {
+        long[] likers = likesIndex.getLikers(filmId);
+        int from = Arrays.binarySearch(likers, afterUserId);
+        from = from >= 0 ? from + 1 : -from - 1;
+        int to = (int) Math.min(likers.length, (long) from + limit);
+        return userStorage.getUsersByIds(Arrays.copyOfRange(likers, from, Math.max(from, to)));
+    }
+
+    @Override
+    public List<Film> getPopularFilms(Long count, Long genreId, Integer year) {
+        return getFilmsByIds(popularFilmsIndex.getTop(count, genreId, year));
+    }
+
+    @Override
+    public PopularFilmIds getPopularFilmIds(Long count, Long genreId, Integer year) {
+        return popularFilmsIndex.getRanking(count, genreId, year);
+    }
+
+    @Override
+    public List<FilmSummary> getPopularFilmSummaries(Long count, Long genreId, Integer year) {
+        List<FilmSummary> summaries = new ArrayList<>();
+        for (Long filmId : popularFilmsIndex.getTop(count, genreId, year)) {
+            Film film = database.getFilms().get(filmId);
+            if (film != null) {
+                summaries.add(toSummary(film));
+            }
+        }
+        return summaries;
+    }
+
+    @Override
+    public List<Film> getRecommendedFilms(Long userId, int limit) {
+        return getFilmsByIds(Arrays.stream(filmRecommender.recommend(userId, limit)).boxed().collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<Film> searchFilms(String query, Set<SearchField> fields, int offset, int limit) {
+        return getFilmsByIds(Arrays.stream(filmSearchIndex.search(query, fields, offset, limit))
+                .boxed()
+                .collect(Collectors.toList()));
+    }
+
+    private LikeStatus getLikeStatus(Long filmId, Long userId, boolean liked) {
+        return LikeStatus.builder()
+                .filmId(filmId)
+                .userId(userId)
+                .liked(liked)
+                .likesCount(popularFilmsIndex.getLikes(filmId))
+                .build();
+    }
+
+    private FilmSummary toSummary(Film film) {
+        return FilmSummary.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .releaseDate(film.getReleaseDate())
+                .likesCount(popularFilmsIndex.getLikes(film.getId()))
+                .build();
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(List<Long> filmIds) {
+        List<Film> films = new ArrayList<>(filmIds.size());
+        for (Long filmId : filmIds) {
+            Film film = database.getFilms().get(filmId);
+            if (film != null) {
+                films.add(InMemoryDatabase.copyFilm(film));
+            }
+        }
+        return films;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.FilmGenre;
+
+import java.util.*;
+
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "type", havingValue = "memory")
+public class InMemoryFilmsGenresStorage implements FilmsGenresStorage {
+    private final InMemoryDatabase database;
+
+    @Override
+    public void addFilmGenres(Long filmId, Collection<Long> genreIds) {
+        if (genreIds.isEmpty()) {
+            return;
+        }
+        Set<Long> newGenreIds = new LinkedHashSet<>();
+        for (long genreId : database.getFilmGenres(filmId)) {
+            newGenreIds.add(genreId);
+        }
+        newGenreIds.addAll(genreIds);
+        database.setFilmGenres(filmId, newGenreIds);
+    }
+
+    @Override
+    public void addFilmsGenres(Map<Long, ? extends Collection<Long>> genreIdsByFilm) {
+        genreIdsByFilm.forEach(this::addFilmGenres);
+    }
+
+    @Override
+    public void setFilmGenres(Long filmId, Collection<Long> genreIds) {
+        database.setFilmGenres(filmId, new LinkedHashSet<>(genreIds));
+    }
+
+    @Override
+    public List<FilmGenre> getFilmGenres(Long filmId) {
+        return getFilmsGenres(List.of(filmId));
+    }
+
+    @Override
+    public List<FilmGenre> getFilmsGenres(Collection<Long> filmIds) {
+        List<FilmGenre> filmGenres = new ArrayList<>();
+        for (Long filmId : filmIds) {
+            for (long genreId : database.getFilmGenres(filmId)) {
+                filmGenres.add(FilmGenre.builder().filmId(filmId).genreId(genreId).build());
+            }
+        }
+        return filmGenres;
+    }
+}
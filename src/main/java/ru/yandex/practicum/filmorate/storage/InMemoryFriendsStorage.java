@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "type", havingValue = "memory")
+public class InMemoryFriendsStorage implements FriendsStorage {
+    private final InMemoryDatabase database;
+    private final UserStorage userStorage;
+    private final FriendsGraph friendsGraph;
+    private final FriendRecommender friendRecommender;
+
+    @Override
+    public void addFriends(Long userId, Long friendId) {
+        database.addFriend(userId, friendId);
+    }
+
+    @Override
+    public void removeFriends(Long userId, Long friendId) {
+        database.removeFriend(userId, friendId);
+    }
+
+    @Override
+    public void addFriendships(List<Friendship> friendships) {
+        friendships.forEach(friendship -> database.addFriend(friendship.getUserId(), friendship.getFriendId()));
+    }
+
+    @Override
+    public void streamFriendships(Consumer<Friendship> consumer) {
+        for (Long userId : database.getUsers().keySet()) {
+            for (long friendId : friendsGraph.getFriends(userId)) {
+                Friendship friendship = new Friendship();
+                friendship.setUserId(userId);
+                friendship.setFriendId(friendId);
+                consumer.accept(friendship);
+            }
+        }
+    }
+
+    @Override
+    public List<User> getFriends(Long userId) {
+        return userStorage.getUsersByIds(friendsGraph.getFriends(userId));
+    }
+
+    @Override
+    public List<User> getCommonFriends(Long id, Long otherId) {
+        return userStorage.getUsersByIds(friendsGraph.getCommonFriends(id, otherId));
+    }
+
+    @Override
+    public List<User> getFriendRecommendations(Long userId, int limit) {
+        return userStorage.getUsersByIds(friendRecommender.recommend(userId, limit));
+    }
+}
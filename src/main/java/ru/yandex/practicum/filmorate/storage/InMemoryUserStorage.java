@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "type", havingValue = "memory")
+public class InMemoryUserStorage implements UserStorage {
+    private final InMemoryDatabase database;
+
+    @Override
+    public List<User> getAllUsers() {
+        return database.getUsers().values().stream()
+                .map(InMemoryDatabase::copyUser)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<User> getUsersPage(Long afterId, Integer limit) {
+        return database.getUsers().tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(InMemoryDatabase::copyUser)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamUsers(Consumer<User> consumer) {
+        database.getUsers().values().forEach(user -> consumer.accept(InMemoryDatabase.copyUser(user)));
+    }
+
+    @Override
+    public User createUser(User user) {
+        database.createUser(user);
+        log.info("Пользователь добавлен");
+        return user;
+    }
+
+    @Override
+    public List<User> createUsers(List<User> users) {
+        users.forEach(database::createUser);
+        log.info("Добавлен пакет пользователей: {}", users.size());
+        return users;
+    }
+
+    @Override
+    public Optional<User> getUser(Long id) {
+        return Optional.ofNullable(database.getUsers().get(id)).map(InMemoryDatabase::copyUser);
+    }
+
+    @Override
+    public List<User> getUsersByIds(long[] ids) {
+        List<User> users = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            User user = database.getUsers().get(id);
+            if (user != null) {
+                users.add(InMemoryDatabase.copyUser(user));
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public Optional<Long> getUserVersion(Long id) {
+        return database.getUserVersion(id);
+    }
+
+    @Override
+    public boolean isUserExist(Long id) {
+        return database.getUsers().containsKey(id);
+    }
+
+    @Override
+    public Set<Long> getExistingUserIds(Collection<Long> ids) {
+        return ids.stream()
+                .filter(database.getUsers()::containsKey)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public User updateUser(User user) {
+        database.updateUser(user);
+        log.info("Пользователь обновлен");
+        return user;
+    }
+
+    @Override
+    public void deleteUser(Long id) {
+        database.deleteUser(id);
+        log.info("Пользователь удален");
+    }
+}
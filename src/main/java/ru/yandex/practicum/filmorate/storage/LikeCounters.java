@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class LikeCounters {
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final Queue<Long> pendingRanking = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> pendingStore = new ConcurrentLinkedQueue<>();
+
+    public void reset(Map<Long, Long> likesCounts) {
+        counters.clear();
+        pendingRanking.clear();
+        pendingStore.clear();
+        likesCounts.forEach((filmId, likes) -> counters.put(filmId, new Counter(likes)));
+    }
+
+    public void addFilm(Long filmId) {
+        counters.putIfAbsent(filmId, new Counter(0L));
+    }
+
+    public void removeFilm(Long filmId) {
+        counters.remove(filmId);
+    }
+
+    public boolean add(Long filmId, long delta) {
+        Counter counter = counters.get(filmId);
+        if (counter == null) {
+            return false;
+        }
+        counter.likes.add(delta);
+        mark(counter.rankingPending, pendingRanking, filmId);
+        mark(counter.storePending, pendingStore, filmId);
+        return true;
+    }
+
+    public void markStore(Long filmId) {
+        Counter counter = counters.get(filmId);
+        if (counter != null) {
+            mark(counter.storePending, pendingStore, filmId);
+        }
+    }
+
+    public long get(Long filmId) {
+        Counter counter = counters.get(filmId);
+        return counter == null ? 0L : Math.max(0L, counter.likes.sum());
+    }
+
+    public boolean hasPendingRanking() {
+        return !pendingRanking.isEmpty();
+    }
+
+    public Map<Long, Long> drainRanking() {
+        return drain(pendingRanking, true);
+    }
+
+    public Map<Long, Long> drainStore() {
+        return drain(pendingStore, false);
+    }
+
+    private Map<Long, Long> drain(Queue<Long> pending, boolean ranking) {
+        Map<Long, Long> likesCounts = new HashMap<>();
+        Long filmId;
+        while ((filmId = pending.poll()) != null) {
+            Counter counter = counters.get(filmId);
+            if (counter == null) {
+                continue;
+            }
+            (ranking ? counter.rankingPending : counter.storePending).set(false);
+            likesCounts.put(filmId, Math.max(0L, counter.likes.sum()));
+        }
+        return likesCounts;
+    }
+
+    private static void mark(AtomicBoolean flag, Queue<Long> pending, Long filmId) {
+        if (!flag.get() && flag.compareAndSet(false, true)) {
+            pending.add(filmId);
+        }
+    }
+
+    private static class Counter {
+        private final LongAdder likes = new LongAdder();
+        private final AtomicBoolean rankingPending = new AtomicBoolean();
+        private final AtomicBoolean storePending = new AtomicBoolean();
+
+        private Counter(long likes) {
+            this.likes.add(likes);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class LikesIndex {
+    private static final long[] EMPTY = SortedLongArrays.EMPTY;
+
+    private final Map<Long, long[]> likedFilms = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> likers = new ConcurrentHashMap<>();
+
+    public void rebuild(Map<Long, long[]> likedFilmsByUser, Map<Long, long[]> likersByFilm) {
+        likedFilms.clear();
+        likers.clear();
+        likedFilms.putAll(likedFilmsByUser);
+        likers.putAll(likersByFilm);
+    }
+
+    public void addLike(Long filmId, Long userId) {
+        likedFilms.compute(userId, (id, ids) -> SortedLongArrays.insert(ids, filmId));
+        likers.compute(filmId, (id, ids) -> SortedLongArrays.insert(ids, userId));
+    }
+
+    public void removeLike(Long filmId, Long userId) {
+        likedFilms.computeIfPresent(userId, (id, ids) -> SortedLongArrays.remove(ids, filmId));
+        likers.computeIfPresent(filmId, (id, ids) -> SortedLongArrays.remove(ids, userId));
+    }
+
+    public void removeFilm(Long filmId) {
+        for (long userId : likers.getOrDefault(filmId, EMPTY)) {
+            likedFilms.computeIfPresent(userId, (id, ids) -> SortedLongArrays.remove(ids, filmId));
+        }
+        likers.remove(filmId);
+    }
+
+    public void removeUser(Long userId) {
+        for (long filmId : likedFilms.getOrDefault(userId, EMPTY)) {
+            likers.computeIfPresent(filmId, (id, ids) -> SortedLongArrays.remove(ids, userId));
+        }
+        likedFilms.remove(userId);
+    }
+
+    public long[] getLikedFilms(Long userId) {
+        return likedFilms.getOrDefault(userId, EMPTY).clone();
+    }
+
+    public long[] getLikers(Long filmId) {
+        return likers.getOrDefault(filmId, EMPTY).clone();
+    }
+
+    public int countLikedFilms(Long userId) {
+        return likedFilms.getOrDefault(userId, EMPTY).length;
+    }
+
+    public int countLikers(Long filmId) {
+        return likers.getOrDefault(filmId, EMPTY).length;
+    }
+
+    public boolean hasLike(Long filmId, Long userId) {
+        return SortedLongArrays.contains(likers.getOrDefault(filmId, EMPTY), userId);
+    }
+
+    public int copyLikers(Long filmId, long[] target, int position, int limit) {
+        long[] filmLikers = likers.getOrDefault(filmId, EMPTY);
+        int count = Math.min(filmLikers.length, limit);
+        System.arraycopy(filmLikers, 0, target, position, count);
+        return count;
+    }
+
+    public long[] getUsersWithLikes(int minLikes) {
+        return likedFilms.entrySet().stream()
+                .filter(entry -> entry.getValue().length >= minLikes)
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+    }
+}
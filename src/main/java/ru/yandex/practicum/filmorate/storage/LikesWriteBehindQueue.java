@@ -0,0 +1,168 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.LikesWriteBehindProperties;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.TooManyRequestsException;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikesWriteBehindQueue {
+    private final LikesWriteBehindProperties properties;
+    private final Map<Like, PendingLike> pending = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private ScheduledExecutorService executor;
+    private volatile LikesWriter writer;
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "likes-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Отложенная запись лайков включена");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(properties.getFlushInterval().toMillis() * 10, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void setWriter(LikesWriter writer) {
+        this.writer = writer;
+    }
+
+    public CompletableFuture<Void> submit(Like like, boolean added) {
+        CompletableFuture<Void> ack = new CompletableFuture<>();
+        int size;
+        lock.lock();
+        try {
+            PendingLike pendingLike = pending.get(like);
+            if (pendingLike == null) {
+                awaitCapacity();
+                pendingLike = new PendingLike();
+                pending.put(like, pendingLike);
+            }
+            pendingLike.added = added;
+            pendingLike.acks.add(ack);
+            size = pending.size();
+        } finally {
+            lock.unlock();
+        }
+        if (executor != null && size >= properties.getBatchSize() && flushRequested.compareAndSet(false, true)) {
+            executor.execute(this::flush);
+        }
+        return ack;
+    }
+
+    public void flush() {
+        flushRequested.set(false);
+        Map<Like, PendingLike> batch = drain();
+        while (!batch.isEmpty()) {
+            write(batch);
+            batch = drain();
+        }
+    }
+
+    private void awaitCapacity() {
+        long nanos = properties.getOfferTimeout().toNanos();
+        try {
+            while (pending.size() >= properties.getQueueCapacity()) {
+                if (nanos <= 0L) {
+                    log.warn("Очередь лайков переполнена");
+                    throw new TooManyRequestsException("Очередь лайков переполнена, повторите запрос позже");
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TooManyRequestsException("Очередь лайков переполнена, повторите запрос позже");
+        }
+    }
+
+    private Map<Like, PendingLike> drain() {
+        lock.lock();
+        try {
+            Map<Like, PendingLike> batch = new LinkedHashMap<>();
+            Iterator<Map.Entry<Like, PendingLike>> iterator = pending.entrySet().iterator();
+            while (batch.size() < properties.getBatchSize() && iterator.hasNext()) {
+                Map.Entry<Like, PendingLike> entry = iterator.next();
+                batch.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+            if (!batch.isEmpty()) {
+                notFull.signalAll();
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(Map<Like, PendingLike> batch) {
+        List<Like> added = new ArrayList<>();
+        List<Like> removed = new ArrayList<>();
+        batch.forEach((like, pendingLike) -> (pendingLike.added ? added : removed).add(like));
+        try {
+            Set<Like> failed = new HashSet<>(writer.write(added, removed));
+            batch.forEach((like, pendingLike) -> pendingLike.acks.forEach(ack -> {
+                if (failed.contains(like)) {
+                    ack.completeExceptionally(new NotFoundException(MessageFormat.format(
+                            "Фильм c id: {0} или пользователь c id: {1} не существует",
+                            like.getFilmId(), like.getUserId())));
+                } else {
+                    ack.complete(null);
+                }
+            }));
+        } catch (RuntimeException e) {
+            log.error("Не удалось записать пакет лайков", e);
+            batch.values().forEach(pendingLike -> pendingLike.acks.forEach(ack -> ack.completeExceptionally(e)));
+        }
+    }
+
+    public interface LikesWriter {
+        List<Like> write(List<Like> added, List<Like> removed);
+    }
+
+    private static class PendingLike {
+        private boolean added;
+        private final List<CompletableFuture<Void>> acks = new ArrayList<>(1);
+    }
+}
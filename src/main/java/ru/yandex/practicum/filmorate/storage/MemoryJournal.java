@@ -0,0 +1,166 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Slf4j
+class MemoryJournal implements Closeable {
+    private static final String SNAPSHOT_FILE = "snapshot.ndjson";
+    private static final String JOURNAL_FILE = "journal.ndjson";
+    private static final String PREVIOUS_JOURNAL_FILE = "journal.ndjson.prev";
+
+    private final Path snapshot;
+    private final Path snapshotTmp;
+    private final Path journalPath;
+    private final Path previousJournalPath;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private FileChannel journal;
+
+    MemoryJournal(Path directory, ObjectMapper objectMapper, boolean fsync) {
+        this.snapshot = directory.resolve(SNAPSHOT_FILE);
+        this.snapshotTmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        this.journalPath = directory.resolve(JOURNAL_FILE);
+        this.previousJournalPath = directory.resolve(PREVIOUS_JOURNAL_FILE);
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    long replay(Consumer<MemoryJournalEntry> consumer) {
+        try {
+            long entries = 0;
+            if (Files.exists(snapshot)) {
+                entries += read(snapshot, consumer, false);
+            }
+            if (Files.exists(previousJournalPath)) {
+                entries += read(previousJournalPath, consumer, false);
+            }
+            journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            entries += read(journalPath, consumer, true);
+            journal.position(journal.size());
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void append(MemoryJournalEntry entry) {
+        try {
+            journal.write(ByteBuffer.wrap(toLine(entry)));
+            if (fsync) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void rotate() {
+        try {
+            journal.force(true);
+            journal.close();
+            if (Files.exists(previousJournalPath)) {
+                try (FileChannel previous = FileChannel.open(previousJournalPath, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+                     FileChannel current = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+                    long size = current.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += current.transferTo(position, size - position, previous);
+                    }
+                    previous.force(true);
+                }
+            } else {
+                Files.move(journalPath, previousJournalPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+            journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void writeSnapshot(List<MemoryJournalEntry> entries) {
+        try (FileOutputStream file = new FileOutputStream(snapshotTmp.toFile());
+             OutputStream out = new BufferedOutputStream(file, 1 << 16)) {
+            for (MemoryJournalEntry entry : entries) {
+                out.write(toLine(entry));
+            }
+            out.flush();
+            file.getChannel().force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(snapshotTmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(previousJournalPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long read(Path path, Consumer<MemoryJournalEntry> consumer, boolean truncateTail) throws IOException {
+        long entries = 0;
+        long validBytes = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    MemoryJournalEntry entry;
+                    try {
+                        entry = objectMapper.readValue(line, MemoryJournalEntry.class);
+                    } catch (JsonProcessingException e) {
+                        if (!truncateTail) {
+                            throw e;
+                        }
+                        log.warn("Журнал {} обрезан после {} записей: повреждённый хвост", path, entries);
+                        journal.truncate(validBytes);
+                        break;
+                    }
+                    consumer.accept(entry);
+                    entries++;
+                }
+                validBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+        }
+        return entries;
+    }
+
+    private byte[] toLine(MemoryJournalEntry entry) throws JsonProcessingException {
+        byte[] json = objectMapper.writeValueAsBytes(entry);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+}
@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MemoryJournalEntry {
+    private Operation operation;
+    private Long id;
+    private Long otherId;
+    private Long version;
+    private Film film;
+    private User user;
+    private List<Long> ids;
+
+    public enum Operation {
+        SEQUENCES,
+        PUT_FILM,
+        DELETE_FILM,
+        SET_FILM_GENRES,
+        PUT_USER,
+        DELETE_USER,
+        ADD_LIKE,
+        REMOVE_LIKE,
+        ADD_FRIEND,
+        REMOVE_FRIEND
+    }
+}
@@ -3,22 +3,24 @@ package ru.yandex.practicum.filmorate.storage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.mapper.MpaMapper;
 import ru.yandex.practicum.filmorate.model.Mpa;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Slf4j
 @Repository
 @RequiredArgsConstructor
 public class MpaDbStorage implements MpaStorage {
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     private final MpaMapper mpaMapper;
-    private static final String SQL_QUERY_GET_ALL_RATES = "SELECT * FROM MPA";
-    private static final String SQL_QUERY_GET_RATE_BY_ID = "SELECT * FROM MPA " +
+    private static final String SQL_QUERY_GET_ALL_RATES = "SELECT " + MpaMapper.COLUMNS + " FROM MPA";
+    private static final String SQL_QUERY_GET_RATE_BY_ID = "SELECT " + MpaMapper.COLUMNS + " FROM MPA " +
             "WHERE ID = ?";
+    private static final String SQL_QUERY_GET_RATES_BY_IDS = "SELECT " + MpaMapper.COLUMNS + " FROM MPA WHERE ID IN (:ids)";
 
     @Override
     public List<Mpa> getAllMpa() {
@@ -33,4 +35,12 @@ public class MpaDbStorage implements MpaStorage {
         }
         return Optional.of(rateList.get(0));
     }
+
+    @Override
+    public List<Mpa> getMpaByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return namedParameterJdbcTemplate.query(SQL_QUERY_GET_RATES_BY_IDS, Map.of("ids", ids), mpaMapper);
+    }
 }
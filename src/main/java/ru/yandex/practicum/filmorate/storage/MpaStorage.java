@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Mpa;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +11,5 @@ public interface MpaStorage {
 
     Optional<Mpa> getMpa(Long id);
 
+    List<Mpa> getMpaByIds(Collection<Long> ids);
 }
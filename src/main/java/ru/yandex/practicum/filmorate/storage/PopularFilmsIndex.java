@@ -0,0 +1,255 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.LikeCountersProperties;
+import ru.yandex.practicum.filmorate.model.PopularFilmIds;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PopularFilmsIndex {
+    private static final Comparator<FilmLikes> RANKING_ORDER = Comparator
+            .comparingLong(FilmLikes::getLikes).reversed()
+            .thenComparingLong(FilmLikes::getFilmId);
+
+    private final LikeCounters likeCounters;
+    private final LikeCountersProperties likeCountersProperties;
+    private final Map<Long, FilmLikes> likesByFilm = new ConcurrentHashMap<>();
+    private final NavigableSet<FilmLikes> ranking = new TreeSet<>(RANKING_ORDER);
+    private final Map<Long, NavigableSet<FilmLikes>> rankingByGenre = new HashMap<>();
+    private final Map<Integer, NavigableSet<FilmLikes>> rankingByYear = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "popular-films-ranking");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = likeCountersProperties.getRankingInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::applyPendingLikes, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public void rebuild(Map<Long, Long> likesCounts, Map<Long, Integer> releaseYears, Map<Long, long[]> genreIds) {
+        lock.writeLock().lock();
+        try {
+            version.incrementAndGet();
+            likesByFilm.clear();
+            ranking.clear();
+            rankingByGenre.clear();
+            rankingByYear.clear();
+            likeCounters.reset(likesCounts);
+            likesCounts.forEach((filmId, likes) -> put(new FilmLikes(filmId, likes, releaseYears.get(filmId),
+                    genreIds.getOrDefault(filmId, SortedLongArrays.EMPTY))));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addFilm(Long filmId, Integer releaseYear) {
+        lock.writeLock().lock();
+        try {
+            version.incrementAndGet();
+            if (!likesByFilm.containsKey(filmId)) {
+                likeCounters.addFilm(filmId);
+                put(new FilmLikes(filmId, 0L, releaseYear, SortedLongArrays.EMPTY));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFilm(Long filmId) {
+        lock.writeLock().lock();
+        try {
+            version.incrementAndGet();
+            likeCounters.removeFilm(filmId);
+            FilmLikes filmLikes = likesByFilm.get(filmId);
+            if (filmLikes != null) {
+                remove(filmLikes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void changeLikes(Long filmId, long delta) {
+        likeCounters.add(filmId, delta);
+    }
+
+    public void applyPendingLikes() {
+        if (!likeCounters.hasPendingRanking()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Map<Long, Long> likesCounts = likeCounters.drainRanking();
+            likesCounts.forEach((filmId, likes) -> {
+                FilmLikes filmLikes = likesByFilm.get(filmId);
+                if (filmLikes != null && filmLikes.getLikes() != likes) {
+                    remove(filmLikes);
+                    put(new FilmLikes(filmId, likes, filmLikes.getReleaseYear(), filmLikes.getGenreIds()));
+                }
+            });
+            if (!likesCounts.isEmpty()) {
+                version.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось обновить рейтинг популярных фильмов", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void setReleaseYear(Long filmId, Integer releaseYear) {
+        lock.writeLock().lock();
+        try {
+            version.incrementAndGet();
+            FilmLikes filmLikes = likesByFilm.get(filmId);
+            if (filmLikes != null && !Objects.equals(filmLikes.getReleaseYear(), releaseYear)) {
+                remove(filmLikes);
+                put(new FilmLikes(filmId, filmLikes.getLikes(), releaseYear, filmLikes.getGenreIds()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void setGenres(Long filmId, Collection<Long> genreIds) {
+        lock.writeLock().lock();
+        try {
+            version.incrementAndGet();
+            FilmLikes filmLikes = likesByFilm.get(filmId);
+            if (filmLikes != null) {
+                remove(filmLikes);
+                put(new FilmLikes(filmId, filmLikes.getLikes(), filmLikes.getReleaseYear(),
+                        SortedLongArrays.of(genreIds)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public long getLikes(Long filmId) {
+        return likeCounters.get(filmId);
+    }
+
+    public List<Long> getTop(long count) {
+        return getTop(count, null, null);
+    }
+
+    public List<Long> getTop(long count, Long genreId, Integer releaseYear) {
+        return getRanking(count, genreId, releaseYear).getIds();
+    }
+
+    public PopularFilmIds getRanking(long count, Long genreId, Integer releaseYear) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<FilmLikes> source = getSource(genreId, releaseYear);
+            List<Long> filmIds = new ArrayList<>((int) Math.max(0L, Math.min(count, source.size())));
+            Iterator<FilmLikes> iterator = source.iterator();
+            while (filmIds.size() < count && iterator.hasNext()) {
+                FilmLikes filmLikes = iterator.next();
+                if (filmLikes.matches(genreId, releaseYear)) {
+                    filmIds.add(filmLikes.getFilmId());
+                }
+            }
+            return PopularFilmIds.builder()
+                    .ids(filmIds)
+                    .version(version.get())
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private NavigableSet<FilmLikes> getSource(Long genreId, Integer releaseYear) {
+        if (genreId == null && releaseYear == null) {
+            return ranking;
+        }
+        NavigableSet<FilmLikes> byGenre = genreId == null ? null : rankingByGenre.get(genreId);
+        NavigableSet<FilmLikes> byYear = releaseYear == null ? null : rankingByYear.get(releaseYear);
+        if ((genreId != null && byGenre == null) || (releaseYear != null && byYear == null)) {
+            return Collections.emptyNavigableSet();
+        }
+        if (byGenre == null) {
+            return byYear;
+        }
+        if (byYear == null) {
+            return byGenre;
+        }
+        return byGenre.size() <= byYear.size() ? byGenre : byYear;
+    }
+
+    private void put(FilmLikes filmLikes) {
+        likesByFilm.put(filmLikes.getFilmId(), filmLikes);
+        ranking.add(filmLikes);
+        for (long genreId : filmLikes.getGenreIds()) {
+            rankingByGenre.computeIfAbsent(genreId, id -> new TreeSet<>(RANKING_ORDER)).add(filmLikes);
+        }
+        if (filmLikes.getReleaseYear() != null) {
+            rankingByYear.computeIfAbsent(filmLikes.getReleaseYear(), year -> new TreeSet<>(RANKING_ORDER))
+                    .add(filmLikes);
+        }
+    }
+
+    private void remove(FilmLikes filmLikes) {
+        likesByFilm.remove(filmLikes.getFilmId());
+        ranking.remove(filmLikes);
+        for (long genreId : filmLikes.getGenreIds()) {
+            removeFrom(rankingByGenre, genreId, filmLikes);
+        }
+        if (filmLikes.getReleaseYear() != null) {
+            removeFrom(rankingByYear, filmLikes.getReleaseYear(), filmLikes);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, NavigableSet<FilmLikes>> rankings, K key, FilmLikes filmLikes) {
+        NavigableSet<FilmLikes> filmRanking = rankings.get(key);
+        if (filmRanking != null) {
+            filmRanking.remove(filmLikes);
+            if (filmRanking.isEmpty()) {
+                rankings.remove(key);
+            }
+        }
+    }
+
+    @Value
+    private static class FilmLikes {
+        long filmId;
+        long likes;
+        Integer releaseYear;
+        long[] genreIds;
+
+        private boolean matches(Long genreId, Integer year) {
+            return (genreId == null || SortedLongArrays.contains(genreIds, genreId))
+                    && (year == null || year.equals(releaseYear));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+final class SortedLongArrays {
+    static final long[] EMPTY = new long[0];
+
+    private SortedLongArrays() {
+    }
+
+    static long[] of(Collection<Long> ids) {
+        long[] array = ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        return array.length == 0 ? EMPTY : array;
+    }
+
+    static long[] insert(long[] ids, long id) {
+        if (ids == null) {
+            return new long[]{id};
+        }
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            return ids;
+        }
+        int position = -index - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        result[position] = id;
+        System.arraycopy(ids, position, result, position + 1, ids.length - position);
+        return result;
+    }
+
+    static long[] remove(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, index);
+        System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+        return result;
+    }
+
+    static boolean contains(long[] ids, long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    static long[] intersect(long[] first, long[] second) {
+        long[] common = new long[Math.min(first.length, second.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                common[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(common, size);
+    }
+
+    static long[] merge(long[] first, long[] second) {
+        long[] result = new long[first.length + second.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < first.length && j < second.length) {
+            result[k++] = first[i] <= second[j] ? first[i++] : second[j++];
+        }
+        System.arraycopy(first, i, result, k, first.length - i);
+        System.arraycopy(second, j, result, k + first.length - i, second.length - j);
+        return result;
+    }
+
+    static class GroupBuilder {
+        private final Map<Long, long[]> groups = new HashMap<>();
+        private long[] buffer = new long[16];
+        private int size;
+        private long currentKey;
+
+        void add(long key, long value) {
+            if (size > 0 && key != currentKey) {
+                flush();
+            }
+            currentKey = key;
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size++] = value;
+        }
+
+        Map<Long, long[]> build() {
+            if (size > 0) {
+                flush();
+            }
+            return groups;
+        }
+
+        private void flush() {
+            groups.put(currentKey, Arrays.copyOf(buffer, size));
+            size = 0;
+        }
+    }
+}
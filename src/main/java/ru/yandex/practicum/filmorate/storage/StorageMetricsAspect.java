@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class StorageMetricsAspect {
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> rows = new ConcurrentHashMap<>();
+
+    @Around("execution(public * ru.yandex.practicum.filmorate.storage.*DbStorage.*(..)) || "
+            + "execution(public * ru.yandex.practicum.filmorate.storage.InMemory*Storage.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        String storage = joinPoint.getTarget().getClass().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        String exception = NO_EXCEPTION;
+        try {
+            Object result = joinPoint.proceed();
+            recordRows(storage, method, result);
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            timer(storage, method, exception).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String storage, String method, String exception) {
+        return timers.computeIfAbsent(storage + '.' + method + '.' + exception, key -> Timer.builder("filmorate.storage")
+                .description("Время выполнения методов хранилищ")
+                .tag("storage", storage)
+                .tag("method", method)
+                .tag("exception", exception)
+                .register(meterRegistry));
+    }
+
+    private void recordRows(String storage, String method, Object result) {
+        long count;
+        if (result instanceof Collection) {
+            count = ((Collection<?>) result).size();
+        } else if (result instanceof Map) {
+            count = ((Map<?, ?>) result).size();
+        } else if (result instanceof Optional) {
+            count = ((Optional<?>) result).isPresent() ? 1 : 0;
+        } else if (result instanceof long[]) {
+            count = ((long[]) result).length;
+        } else {
+            return;
+        }
+        rows.computeIfAbsent(storage + '.' + method, key -> DistributionSummary.builder("filmorate.storage.rows")
+                        .description("Количество строк, возвращённых методами хранилищ")
+                        .baseUnit("rows")
+                        .tag("storage", storage)
+                        .tag("method", method)
+                        .register(meterRegistry))
+                .record(count);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+class TopIds {
+    private final int limit;
+    private final PriorityQueue<Entry> heap;
+
+    TopIds(int limit) {
+        this.limit = limit;
+        this.heap = new PriorityQueue<>(Math.max(1, limit + 1));
+    }
+
+    void offer(long id, double score) {
+        if (limit <= 0) {
+            return;
+        }
+        Entry entry = new Entry(id, score);
+        if (heap.size() < limit) {
+            heap.add(entry);
+        } else if (entry.compareTo(heap.peek()) > 0) {
+            heap.poll();
+            heap.add(entry);
+        }
+    }
+
+    Entry[] sorted() {
+        Entry[] entries = heap.toArray(new Entry[0]);
+        Arrays.sort(entries, Comparator.reverseOrder());
+        return entries;
+    }
+
+    long[] ids() {
+        return Arrays.stream(sorted()).mapToLong(Entry::getId).toArray();
+    }
+
+    static class Entry implements Comparable<Entry> {
+        private final long id;
+        private final double score;
+
+        private Entry(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        double getScore() {
+            return score;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            if (score != other.score) {
+                return Double.compare(score, other.score);
+            }
+            return Long.compare(other.id, id);
+        }
+    }
+}
@@ -2,33 +2,77 @@ package ru.yandex.practicum.filmorate.storage;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.mapper.UserMapper;
+import ru.yandex.practicum.filmorate.model.DomainEvent;
+import ru.yandex.practicum.filmorate.model.DomainEventType;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Repository
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "type", havingValue = "jdbc", matchIfMissing = true)
 public class UserDbStorage implements UserStorage {
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     private final UserMapper userMapper;
-    public static final String SQL_QUERY_GET_ALL_USERS = "SELECT * FROM USERS";
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final FriendsGraph friendsGraph;
+    private final FriendRecommender friendRecommender;
+    private final LikesIndex likesIndex;
+    private final FilmRecommender filmRecommender;
+    private final DomainEventOutbox domainEventOutbox;
+    private static final int STREAM_FETCH_SIZE = 500;
+    public static final String SQL_QUERY_GET_ALL_USERS = "SELECT " + UserMapper.COLUMNS + " FROM USERS";
+    public static final String SQL_QUERY_GET_USERS_PAGE = "SELECT " + UserMapper.COLUMNS + " FROM USERS WHERE ID > ? ORDER BY ID LIMIT ?";
+    public static final String SQL_QUERY_GET_ALL_USERS_ORDERED = "SELECT " + UserMapper.COLUMNS + " FROM USERS ORDER BY ID";
     public static final String SQL_QUERY_CREATE_USER = "INSERT INTO USERS(email, login, name, birthday) " +
             "values (?, ?, ?, ?)";
-    public static final String SQL_QUERY_GET_USER_BY_ID = "SELECT * FROM USERS WHERE ID = ?";public static final String SQL_QUERY_UPDATE_USER = "UPDATE USERS " +
-            "SET email = ?, login = ?, name = ?, birthday = ? WHERE ID = ?";
+    public static final String SQL_QUERY_GET_USER_BY_ID = "SELECT " + UserMapper.COLUMNS + " FROM USERS WHERE ID = ?";
+    public static final String SQL_QUERY_GET_USERS_BY_IDS = "SELECT " + UserMapper.COLUMNS + " FROM USERS WHERE ID IN (:ids)";
+    public static final String SQL_QUERY_USER_EXISTS = "SELECT EXISTS(SELECT 1 FROM USERS WHERE ID = ?)";
+    public static final String SQL_QUERY_GET_EXISTING_USER_IDS = "SELECT ID FROM USERS WHERE ID IN (:ids)";
+    public static final String SQL_QUERY_UPDATE_USER = "UPDATE USERS " +
+            "SET email = ?, login = ?, name = ?, birthday = ?, version = version + 1 WHERE ID = ?";
+    public static final String SQL_QUERY_GET_USER_VERSION = "SELECT version FROM USERS WHERE ID = ?";
     public static final String SQL_DELETE_USER_BY_ID = "DELETE FROM USERS WHERE ID = ?";
+    public static final String SQL_QUERY_GET_LIKED_FILM_IDS = "SELECT film_id FROM LIKES WHERE user_id = ?";
 
     public List<User> getAllUsers() {
         return jdbcTemplate.query(SQL_QUERY_GET_ALL_USERS, userMapper);
     }
 
+    @Override
+    public List<User> getUsersPage(Long afterId, Integer limit) {
+        return jdbcTemplate.query(SQL_QUERY_GET_USERS_PAGE, userMapper, afterId, limit);
+    }
+
+    @Override
+    public void streamUsers(Consumer<User> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(SQL_QUERY_GET_ALL_USERS_ORDERED,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            return stmt;
+        }, rs -> {
+            consumer.accept(userMapper.mapRow(rs, rs.getRow()));
+        });
+    }
+
+    @Transactional
     public User createUser(User user) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
@@ -41,10 +85,43 @@ public class UserDbStorage implements UserStorage {
             return stmt;
         }, keyHolder);
         user.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        domainEventOutbox.append(DomainEventType.USER_CREATED, user.getId(), null);
         log.info("Пользователь добавлен");
         return user;
     }
 
+    @Override
+    @Transactional
+    public List<User> createUsers(List<User> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(SQL_QUERY_CREATE_USER, new String[]{"id"})) {
+                for (User user : users) {
+                    stmt.setString(1, user.getEmail());
+                    stmt.setString(2, user.getLogin());
+                    stmt.setString(3, user.getName());
+                    stmt.setObject(4, user.getBirthday());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    for (User user : users) {
+                        keys.next();
+                        user.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+        domainEventOutbox.appendAll(users.stream()
+                .map(user -> DomainEvent.builder().type(DomainEventType.USER_CREATED).entityId(user.getId()).build())
+                .collect(Collectors.toList()));
+        log.info("Добавлен пакет пользователей: {}", users.size());
+        return users;
+    }
+
     @Override
     public Optional<User> getUser(Long id) {
         List<User> userList = jdbcTemplate.query(SQL_QUERY_GET_USER_BY_ID, userMapper, id);
@@ -54,6 +131,45 @@ public class UserDbStorage implements UserStorage {
         return Optional.of(userList.get(0));
     }
 
+    @Override
+    public List<User> getUsersByIds(long[] ids) {
+        if (ids.length == 0) {
+            return Collections.emptyList();
+        }
+        List<Long> idList = Arrays.stream(ids).boxed().collect(Collectors.toList());
+        Map<Long, User> usersById = new HashMap<>();
+        namedParameterJdbcTemplate.query(SQL_QUERY_GET_USERS_BY_IDS, Map.of("ids", idList), userMapper)
+                .forEach(user -> usersById.put(user.getId(), user));
+        List<User> users = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            User user = usersById.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public Optional<Long> getUserVersion(Long id) {
+        return jdbcTemplate.queryForList(SQL_QUERY_GET_USER_VERSION, Long.class, id).stream().findFirst();
+    }
+
+    @Override
+    public boolean isUserExist(Long id) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(SQL_QUERY_USER_EXISTS, Boolean.class, id));
+    }
+
+    @Override
+    public Set<Long> getExistingUserIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(SQL_QUERY_GET_EXISTING_USER_IDS,
+                Map.of("ids", ids), Long.class));
+    }
+
+    @Transactional
     public User updateUser(User user) {
         jdbcTemplate.update(SQL_QUERY_UPDATE_USER,
                 user.getEmail(),
@@ -61,13 +177,24 @@ public class UserDbStorage implements UserStorage {
                 user.getName(),
                 user.getBirthday(),
                 user.getId());
+        domainEventOutbox.append(DomainEventType.USER_UPDATED, user.getId(), null);
         log.info("Пользователь обновлен");
         return user;
     }
 
     @Override
+    @Transactional
     public void deleteUser(Long id) {
+        List<Long> likedFilmIds = jdbcTemplate.queryForList(SQL_QUERY_GET_LIKED_FILM_IDS, Long.class, id);
         jdbcTemplate.update(SQL_DELETE_USER_BY_ID, id);
+        domainEventOutbox.append(DomainEventType.USER_DELETED, id, null);
+        AfterCommit.run(() -> {
+            likedFilmIds.forEach(filmId -> popularFilmsIndex.changeLikes(filmId, -1));
+            friendsGraph.removeUser(id);
+            friendRecommender.invalidateAll();
+            likesIndex.removeUser(id);
+            filmRecommender.invalidate(id);
+        });
         log.info("Пользователь удален");
     }
 }
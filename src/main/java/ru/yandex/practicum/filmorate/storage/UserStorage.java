@@ -2,16 +2,33 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     List<User> getAllUsers();
 
+    List<User> getUsersPage(Long afterId, Integer limit);
+
+    void streamUsers(Consumer<User> consumer);
+
     User createUser(User user);
 
+    List<User> createUsers(List<User> users);
+
     Optional<User> getUser(Long id);
 
+    List<User> getUsersByIds(long[] ids);
+
+    Optional<Long> getUserVersion(Long id);
+
+    boolean isUserExist(Long id);
+
+    Set<Long> getExistingUserIds(Collection<Long> ids);
+
     User updateUser(User user);
 
     void deleteUser(Long id);
@@ -4,9 +4,12 @@ CREATE TABLE IF NOT EXISTS USERS
     name     varchar(200),
     login    varchar(200),
     email    varchar(200),
-    birthday date
+    birthday date,
+    version  long DEFAULT 0 NOT NULL
 );
 
+ALTER TABLE USERS ADD COLUMN IF NOT EXISTS version long DEFAULT 0 NOT NULL;
+
 CREATE TABLE IF NOT EXISTS FRIENDSHIP_STATUS
 (
     id   long AUTO_INCREMENT PRIMARY KEY,
@@ -37,9 +40,16 @@ CREATE TABLE IF NOT EXISTS FILMS
     duration     long,
     release_date date,
     rate         long,
-    mpa_id       long REFERENCES MPA (id)
+    mpa_id       long REFERENCES MPA (id),
+    likes_count  long DEFAULT 0 NOT NULL,
+    version      long DEFAULT 0 NOT NULL
 );
 
+ALTER TABLE FILMS ADD COLUMN IF NOT EXISTS likes_count long DEFAULT 0 NOT NULL;
+ALTER TABLE FILMS ADD COLUMN IF NOT EXISTS version long DEFAULT 0 NOT NULL;
+
+CREATE INDEX IF NOT EXISTS FILMS_RELEASE_DATE_IDX ON FILMS (release_date);
+
 CREATE TABLE IF NOT EXISTS LIKES
 (
     film_id long REFERENCES FILMS (id) ON DELETE CASCADE,
@@ -47,6 +57,8 @@ CREATE TABLE IF NOT EXISTS LIKES
     PRIMARY KEY (film_id, user_id)
 );
 
+CREATE INDEX IF NOT EXISTS LIKES_USER_FILM_IDX ON LIKES (user_id, film_id);
+
 CREATE TABLE IF NOT EXISTS GENRES
 (
     id   long AUTO_INCREMENT PRIMARY KEY,
@@ -60,3 +72,25 @@ CREATE TABLE IF NOT EXISTS FILMS_GENRES
     PRIMARY KEY (film_id, genre_id)
 );
 
+CREATE INDEX IF NOT EXISTS FILMS_GENRES_GENRE_FILM_IDX ON FILMS_GENRES (genre_id, film_id);
+
+CREATE TABLE IF NOT EXISTS OUTBOX
+(
+    id         long AUTO_INCREMENT PRIMARY KEY,
+    event_type varchar(50) NOT NULL,
+    entity_id  long        NOT NULL,
+    related_id long,
+    created_at timestamp DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS OUTBOX_DEAD_LETTER
+(
+    id         long AUTO_INCREMENT PRIMARY KEY,
+    event_id   long          NOT NULL,
+    event_type varchar(50)   NOT NULL,
+    entity_id  long          NOT NULL,
+    related_id long,
+    consumer   varchar(200)  NOT NULL,
+    error      varchar(1000) NOT NULL,
+    created_at timestamp DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
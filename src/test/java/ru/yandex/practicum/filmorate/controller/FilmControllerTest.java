@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.*;
 import org.apache.commons.lang.RandomStringUtils;
 import org.junit.jupiter.api.AfterEach;
@@ -9,20 +10,48 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.ServletWebRequest;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.DictionaryCacheStats;
+import ru.yandex.practicum.filmorate.model.DomainEventType;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.ImportError;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.model.LikeStatus;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.DomainEventBus;
+import ru.yandex.practicum.filmorate.storage.PopularFilmsIndex;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @SpringBootTest
 @AutoConfigureTestDatabase
@@ -31,6 +60,12 @@ class FilmControllerTest {
 
     private final FilmController filmController;
     private final UserController userController;
+    private final DictionaryCacheController dictionaryCacheController;
+    private final GenreController genreController;
+    private final MeterRegistry meterRegistry;
+    private final DomainEventBus domainEventBus;
+    private final JdbcTemplate jdbcTemplate;
+    private final PopularFilmsIndex popularFilmsIndex;
     private static final String NAME_FIRST = RandomStringUtils.randomAlphabetic(5);
     private static final String NAME_SECOND = RandomStringUtils.randomAlphabetic(10);
     private static final String DESCRIPTION_FIRST = RandomStringUtils.randomAlphabetic(200);
@@ -80,6 +115,436 @@ class FilmControllerTest {
         assertEquals(expectedFilms, actualFilms);
     }
 
+    @Test
+    void getFilmsPageTest() {
+        Film firstFilm = filmController.createFilm(Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        Film secondFilm = filmController.createFilm(Film.builder()
+                .name(NAME_SECOND)
+                .description(DESCRIPTION_SECOND)
+                .releaseDate(RELEASE_DATE_SECOND)
+                .duration(DURATION_SECOND)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+
+        Page<Film> firstPage = filmController.getFilmsPage(null, 1);
+        Page<Film> secondPage = filmController.getFilmsPage(firstPage.getNextCursor(), 1);
+
+        assertAll(
+                () -> assertEquals(List.of(firstFilm), firstPage.getItems()),
+                () -> assertEquals(firstFilm.getId(), firstPage.getNextCursor()),
+                () -> assertEquals(List.of(secondFilm), secondPage.getItems()),
+                () -> assertNull(secondPage.getNextCursor())
+        );
+    }
+
+    @Test
+    void streamFilmsTest() throws IOException {
+        Film film = Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build();
+
+        Film filmCreated = filmController.createFilm(film);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        filmController.streamFilms().writeTo(out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertAll(
+                () -> assertEquals(1, lines.length),
+                () -> assertTrue(lines[0].contains("\"id\":" + filmCreated.getId()))
+        );
+    }
+
+    @Test
+    void importFilmsAndLikesTest() throws IOException {
+        User user = userController.createUser(User.builder()
+                .email(E_MAIL_FIRST)
+                .login(LOGIN_FIRST)
+                .name(NAME_FIRST)
+                .birthday(BIRTHDAY_FIRST)
+                .build());
+        String films = String.join("\n",
+                "{\"name\":\"Первый\",\"description\":\"Описание\",\"releaseDate\":\"2000-01-01\",\"duration\":100,\"mpa\":{\"id\":1},\"genres\":[{\"id\":1},{\"id\":2}]}",
+                "{\"name\":\"Второй\",\"description\":\"Описание\",\"releaseDate\":\"2001-01-01\",\"duration\":90,\"mpa\":{\"id\":2}}",
+                "{\"name\":\"Без рейтинга\",\"description\":\"Описание\",\"releaseDate\":\"2001-01-01\",\"duration\":90}",
+                "{\"name\":\"Чужой жанр\",\"description\":\"Описание\",\"releaseDate\":\"2001-01-01\",\"duration\":90,\"mpa\":{\"id\":1},\"genres\":[{\"id\":-1}]}",
+                "не json",
+                "");
+
+        ImportReport filmsReport = filmController.importFilms(
+                new ByteArrayInputStream(films.getBytes(StandardCharsets.UTF_8)));
+        List<Film> importedFilms = filmController.getAllFilms();
+        Film firstFilm = importedFilms.get(0);
+        String likes = String.join("\n",
+                "{\"filmId\":" + firstFilm.getId() + ",\"userId\":" + user.getId() + "}",
+                "{\"filmId\":" + firstFilm.getId() + ",\"userId\":-1}",
+                "null");
+        ImportReport likesReport = filmController.importLikes(
+                new ByteArrayInputStream(likes.getBytes(StandardCharsets.UTF_8)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        filmController.streamLikes().writeTo(out);
+
+        assertAll(
+                () -> assertEquals(5, filmsReport.getProcessed()),
+                () -> assertEquals(2, filmsReport.getImported()),
+                () -> assertEquals(3, filmsReport.getFailed()),
+                () -> assertEquals(List.of(3L, 4L, 5L), filmsReport.getErrors().stream()
+                        .map(ImportError::getLine)
+                        .collect(Collectors.toList())),
+                () -> assertEquals(List.of("Первый", "Второй"), importedFilms.stream()
+                        .map(Film::getName)
+                        .collect(Collectors.toList())),
+                () -> assertEquals(Set.of(1L, 2L), firstFilm.getGenres().stream()
+                        .map(Genre::getId)
+                        .collect(Collectors.toSet())),
+                () -> assertEquals(1, likesReport.getImported()),
+                () -> assertEquals(List.of(2L, 3L), likesReport.getErrors().stream()
+                        .map(ImportError::getLine)
+                        .collect(Collectors.toList())),
+                () -> assertEquals("{\"filmId\":" + firstFilm.getId() + ",\"userId\":" + user.getId() + "}\n",
+                        out.toString(StandardCharsets.UTF_8))
+        );
+    }
+
+    @Test
+    void getFilmSummariesTest() {
+        Film firstFilm = filmController.createFilm(Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        Film secondFilm = filmController.createFilm(Film.builder()
+                .name(NAME_SECOND)
+                .description(DESCRIPTION_SECOND)
+                .releaseDate(RELEASE_DATE_SECOND)
+                .duration(DURATION_SECOND)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        User user = userController.createUser(User.builder()
+                .email(E_MAIL_FIRST)
+                .login(LOGIN_FIRST)
+                .name(NAME_FIRST)
+                .birthday(BIRTHDAY_FIRST)
+                .build());
+        filmController.addLike(secondFilm.getId(), user.getId());
+        popularFilmsIndex.applyPendingLikes();
+
+        Page<FilmSummary> page = filmController.getFilmSummariesPage(null, 1);
+        List<FilmSummary> popular = filmController.getPopularFilmSummaries(10L, null, null);
+
+        assertAll(
+                () -> assertEquals(List.of(FilmSummary.builder()
+                        .id(firstFilm.getId())
+                        .name(NAME_FIRST)
+                        .releaseDate(RELEASE_DATE_FIRST)
+                        .likesCount(0L)
+                        .build()), page.getItems()),
+                () -> assertEquals(firstFilm.getId(), page.getNextCursor()),
+                () -> assertEquals(List.of(secondFilm.getId(), firstFilm.getId()), popular.stream()
+                        .map(FilmSummary::getId)
+                        .collect(Collectors.toList())),
+                () -> assertEquals(1L, popular.get(0).getLikesCount())
+        );
+    }
+
+    @Test
+    void getPopularFilmsTest() {
+        Film firstFilm = filmController.createFilm(Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        Film secondFilm = filmController.createFilm(Film.builder()
+                .name(NAME_SECOND)
+                .description(DESCRIPTION_SECOND)
+                .releaseDate(RELEASE_DATE_SECOND)
+                .duration(DURATION_SECOND)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        Film thirdFilm = filmController.createFilm(Film.builder()
+                .name(NAME_SECOND)
+                .description(DESCRIPTION_SECOND)
+                .releaseDate(RELEASE_DATE_SECOND)
+                .duration(DURATION_SECOND)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+
+        User firstUser = userController.createUser(User.builder()
+                .email(E_MAIL_FIRST)
+                .login(LOGIN_FIRST)
+                .name(NAME_FIRST)
+                .birthday(BIRTHDAY_FIRST)
+                .build());
+        User secondUser = userController.createUser(User.builder()
+                .email(E_MAIL_FIRST)
+                .login(LOGIN_FIRST)
+                .name(NAME_FIRST)
+                .birthday(BIRTHDAY_FIRST)
+                .build());
+
+        filmController.addLike(thirdFilm.getId(), firstUser.getId());
+        filmController.addLike(thirdFilm.getId(), secondUser.getId());
+        filmController.addLike(thirdFilm.getId(), secondUser.getId());
+        filmController.addLike(secondFilm.getId(), firstUser.getId());
+        popularFilmsIndex.applyPendingLikes();
+
+        List<Long> popularFilmIds = filmController.getPopularFilm(10L, null, null, webRequest()).join().stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+
+        filmController.removeLike(thirdFilm.getId(), firstUser.getId());
+        filmController.removeLike(thirdFilm.getId(), secondUser.getId());
+        popularFilmsIndex.applyPendingLikes();
+
+        List<Long> popularFilmIdsAfterRemove = filmController.getPopularFilm(2L, null, null, webRequest()).join().stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+
+        assertAll(
+                () -> assertEquals(List.of(thirdFilm.getId(), secondFilm.getId(), firstFilm.getId()), popularFilmIds),
+                () -> assertEquals(List.of(secondFilm.getId(), firstFilm.getId()), popularFilmIdsAfterRemove)
+        );
+    }
+
+    @Test
+    void getFilteredPopularFilmsTest() {
+        Film comedy = filmController.createFilm(Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .genres(new HashSet<>(Set.of(Genre.builder().id(1L).build())))
+                .build());
+        Film drama = filmController.createFilm(Film.builder()
+                .name(NAME_SECOND)
+                .description(DESCRIPTION_SECOND)
+                .releaseDate(LocalDate.of(2000, 6, 1))
+                .duration(DURATION_SECOND)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .genres(new HashSet<>(Set.of(Genre.builder().id(2L).build())))
+                .build());
+        Film oldComedy = filmController.createFilm(Film.builder()
+                .name(NAME_SECOND)
+                .description(DESCRIPTION_SECOND)
+                .releaseDate(LocalDate.of(1990, 1, 1))
+                .duration(DURATION_SECOND)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .genres(new HashSet<>(Set.of(Genre.builder().id(1L).build())))
+                .build());
+        User user = userController.createUser(User.builder()
+                .email(E_MAIL_FIRST)
+                .login(LOGIN_FIRST)
+                .name(NAME_FIRST)
+                .birthday(BIRTHDAY_FIRST)
+                .build());
+        filmController.addLike(oldComedy.getId(), user.getId());
+        popularFilmsIndex.applyPendingLikes();
+
+        List<Long> comedyIds = filmController.getPopularFilm(10L, 1L, null, webRequest()).join().stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+        List<Long> filmIdsOf2000 = filmController.getPopularFilm(10L, null, 2000, webRequest()).join().stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+        List<Long> comedyIdsOf2000 = filmController.getPopularFilm(10L, 1L, 2000, webRequest()).join().stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+
+        drama.setGenres(new HashSet<>(Set.of(Genre.builder().id(1L).build())));
+        drama.setReleaseDate(LocalDate.of(1990, 6, 1));
+        filmController.updateFilm(drama);
+
+        List<Long> comedyIdsOf1990 = filmController.getPopularFilm(10L, 1L, 1990, webRequest()).join().stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+
+        assertAll(
+                () -> assertEquals(List.of(oldComedy.getId(), comedy.getId()), comedyIds),
+                () -> assertEquals(List.of(comedy.getId(), drama.getId()), filmIdsOf2000),
+                () -> assertEquals(List.of(comedy.getId()), comedyIdsOf2000),
+                () -> assertEquals(List.of(oldComedy.getId(), drama.getId()), comedyIdsOf1990),
+                () -> assertThrows(NotFoundException.class, () -> filmController.getPopularFilm(10L, -1L, null, webRequest()).join())
+        );
+    }
+
+    @Test
+    void searchFilmsTest() {
+        String word = RandomStringUtils.randomAlphabetic(12).toLowerCase();
+        Film inDescription = filmController.createFilm(Film.builder()
+                .name(NAME_FIRST)
+                .description("Story about " + word)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        Film inTitle = filmController.createFilm(Film.builder()
+                .name(word.toUpperCase() + " returns")
+                .description(DESCRIPTION_SECOND)
+                .releaseDate(RELEASE_DATE_SECOND)
+                .duration(DURATION_SECOND)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+
+        Page<Film> firstPage = filmController.searchFilms(word, "title,description", null, 1);
+        Page<Film> secondPage = filmController.searchFilms(word, "title,description", firstPage.getNextCursor(), 1);
+        List<Long> titleIds = filmController.searchFilms("returns " + word.substring(0, 6), "title", null, 10)
+                .getItems().stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+
+        filmController.deleteFilm(inTitle.getId());
+        List<Long> idsAfterDelete = filmController.searchFilms(word, "title,description", null, 10)
+                .getItems().stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+
+        assertAll(
+                () -> assertEquals(List.of(inTitle.getId()), firstPage.getItems().stream()
+                        .map(Film::getId)
+                        .collect(Collectors.toList())),
+                () -> assertEquals(List.of(inDescription.getId()), secondPage.getItems().stream()
+                        .map(Film::getId)
+                        .collect(Collectors.toList())),
+                () -> assertNull(secondPage.getNextCursor()),
+                () -> assertEquals(List.of(inTitle.getId()), titleIds),
+                () -> assertEquals(List.of(inDescription.getId()), idsAfterDelete),
+                () -> assertThrows(ValidationException.class, () -> filmController.searchFilms(" ", "title", null, 10)),
+                () -> assertThrows(ValidationException.class, () -> filmController.searchFilms(word, "genre", null, 10))
+        );
+    }
+
+    @Test
+    void streamPopularFilmsTest() throws Exception {
+        Film film = filmController.createFilm(Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        User user = userController.createUser(User.builder()
+                .email(E_MAIL_FIRST)
+                .login(LOGIN_FIRST)
+                .name(NAME_FIRST)
+                .birthday(BIRTHDAY_FIRST)
+                .build());
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(filmController).build();
+
+        MockHttpServletResponse response = mockMvc.perform(get("/films/popular/stream").param("count", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+        String snapshot = response.getContentAsString(StandardCharsets.UTF_8);
+        filmController.addLike(film.getId(), user.getId());
+        String events = awaitContent(response, "\"likesCount\":1");
+        film.setName(NAME_SECOND);
+        filmController.updateFilm(film);
+        String renamed = awaitContent(response, "\"name\":\"" + NAME_SECOND + "\"");
+
+        assertAll(
+                () -> assertTrue(snapshot.startsWith("id:")),
+                () -> assertTrue(snapshot.contains("event:popular")),
+                () -> assertTrue(snapshot.contains("{\"rank\":1,\"id\":" + film.getId() + ",\"name\":\"" + NAME_FIRST
+                        + "\",\"likesCount\":0}")),
+                () -> assertTrue(events.contains("{\"rank\":1,\"id\":" + film.getId() + ",\"name\":\"" + NAME_FIRST
+                        + "\",\"likesCount\":1}")),
+                () -> assertTrue(renamed.contains("{\"rank\":1,\"id\":" + film.getId() + ",\"name\":\"" + NAME_SECOND
+                        + "\",\"likesCount\":1}")),
+                () -> assertThrows(ValidationException.class, () -> filmController.streamPopularFilms(0L))
+        );
+    }
+
+    @Test
+    void deliverDomainEventsTest() {
+        Film film = filmController.createFilm(Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        User user = userController.createUser(User.builder()
+                .email(E_MAIL_FIRST)
+                .login(LOGIN_FIRST)
+                .name(NAME_FIRST)
+                .birthday(BIRTHDAY_FIRST)
+                .build());
+        domainEventBus.dispatch();
+        double likesBefore = eventsCount(DomainEventType.LIKE_ADDED);
+        double updatesBefore = eventsCount(DomainEventType.FILM_UPDATED);
+
+        filmController.addLike(film.getId(), user.getId());
+        filmController.addLike(film.getId(), user.getId());
+        filmController.updateFilm(film);
+        domainEventBus.dispatch();
+
+        assertAll(
+                () -> assertEquals(likesBefore + 1, eventsCount(DomainEventType.LIKE_ADDED)),
+                () -> assertEquals(updatesBefore + 1, eventsCount(DomainEventType.FILM_UPDATED)),
+                () -> assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM OUTBOX", Integer.class))
+        );
+    }
+
+    @Test
+    void getPopularFilmsWithDetailsTest() {
+        HashSet<Genre> genres = new HashSet<>();
+        genres.add(Genre.builder().id(1L).build());
+        genres.add(Genre.builder().id(2L).build());
+
+        Film film = Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .genres(genres)
+                .build();
+
+        Film filmCreated = filmController.createFilm(film);
+
+        Film popularFilm = filmController.getPopularFilm(10L, null, null, webRequest()).join().get(0);
+
+        assertAll(
+                () -> assertEquals(filmCreated.getId(), popularFilm.getId()),
+                () -> assertEquals("G", popularFilm.getMpa().getName()),
+                () -> assertEquals(Set.of(1L, 2L), popularFilm.getGenres().stream()
+                        .map(Genre::getId)
+                        .collect(Collectors.toSet())),
+                () -> assertTrue(popularFilm.getGenres().stream().allMatch(genre -> genre.getName() != null))
+        );
+    }
+
     @Test
     void createFilmTest() {
         HashSet<Genre> genres = new HashSet<>();
@@ -116,11 +581,118 @@ class FilmControllerTest {
                 .build();
 
         Film expectedFilm = filmController.createFilm(film);
-        Film actualFilm = filmController.getFilm(film.getId());
+        Film actualFilm = filmController.getFilm(film.getId(), webRequest()).join();
 
         assertEquals(expectedFilm, actualFilm);
     }
 
+    @Test
+    void getFilmFromDictionaryCacheTest() {
+        HashSet<Genre> genres = new HashSet<>();
+        genres.add(Genre.builder().id(1L).build());
+
+        Film film = filmController.createFilm(Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .genres(genres)
+                .build());
+
+        Map<String, DictionaryCacheStats> statsBefore = dictionaryCacheController.getStats();
+        filmController.getFilm(film.getId(), webRequest()).join();
+        Map<String, DictionaryCacheStats> statsAfter = dictionaryCacheController.getStats();
+
+        assertAll(
+                () -> assertEquals(statsBefore.get("mpa").getLoadCount(), statsAfter.get("mpa").getLoadCount()),
+                () -> assertEquals(statsBefore.get("genres").getLoadCount(), statsAfter.get("genres").getLoadCount()),
+                () -> assertTrue(statsAfter.get("mpa").getHitCount() > statsBefore.get("mpa").getHitCount()),
+                () -> assertTrue(statsAfter.get("genres").getHitCount() > statsBefore.get("genres").getHitCount())
+        );
+    }
+
+    @Test
+    void getFilmNotModifiedTest() {
+        Film film = filmController.createFilm(Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        User user = userController.createUser(User.builder()
+                .email(E_MAIL_FIRST)
+                .login(LOGIN_FIRST)
+                .name(NAME_FIRST)
+                .birthday(BIRTHDAY_FIRST)
+                .build());
+
+        ServletWebRequest filmRequest = webRequest();
+        filmController.getFilm(film.getId(), filmRequest).join();
+        String filmETag = filmRequest.getResponse().getHeader(HttpHeaders.ETAG);
+        ServletWebRequest popularRequest = webRequest();
+        filmController.getPopularFilm(10L, null, null, popularRequest).join();
+        String popularETag = popularRequest.getResponse().getHeader(HttpHeaders.ETAG);
+
+        ServletWebRequest notModifiedFilmRequest = webRequest(filmETag);
+        CompletableFuture<Film> notModifiedFilm = filmController.getFilm(film.getId(), notModifiedFilmRequest);
+        ServletWebRequest notModifiedPopularRequest = webRequest(popularETag);
+        CompletableFuture<List<Film>> notModifiedPopular = filmController.getPopularFilm(10L, null, null, notModifiedPopularRequest);
+
+        film.setName(NAME_SECOND);
+        filmController.updateFilm(film);
+        filmController.addLike(film.getId(), user.getId());
+        ServletWebRequest modifiedFilmRequest = webRequest(filmETag);
+        Film modifiedFilm = filmController.getFilm(film.getId(), modifiedFilmRequest).join();
+        ServletWebRequest modifiedPopularRequest = webRequest(popularETag);
+        List<Film> modifiedPopular = filmController.getPopularFilm(10L, null, null, modifiedPopularRequest).join();
+
+        ResponseEntity<List<Genre>> genres = genreController.getAllGenres();
+
+        assertAll(
+                () -> assertNotNull(filmETag),
+                () -> assertNull(notModifiedFilm),
+                () -> assertEquals(HttpStatus.NOT_MODIFIED.value(), notModifiedFilmRequest.getResponse().getStatus()),
+                () -> assertNull(notModifiedPopular),
+                () -> assertEquals(HttpStatus.NOT_MODIFIED.value(), notModifiedPopularRequest.getResponse().getStatus()),
+                () -> assertEquals(NAME_SECOND, modifiedFilm.getName()),
+                () -> assertNotEquals(filmETag, modifiedFilmRequest.getResponse().getHeader(HttpHeaders.ETAG)),
+                () -> assertEquals(List.of(film.getId()), modifiedPopular.stream()
+                        .map(Film::getId)
+                        .collect(Collectors.toList())),
+                () -> assertNotEquals(popularETag, modifiedPopularRequest.getResponse().getHeader(HttpHeaders.ETAG)),
+                () -> assertEquals("max-age=3600, public, stale-while-revalidate=600",
+                        genres.getHeaders().getCacheControl()),
+                () -> assertNotNull(genres.getHeaders().getETag())
+        );
+    }
+
+    @Test
+    void storageMetricsTest() {
+        Film film = filmController.createFilm(Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        long callsBefore = meterRegistry.timer("filmorate.storage",
+                "storage", "FilmDbStorage", "method", "getFilm", "exception", "none").count();
+
+        filmController.getFilm(film.getId(), webRequest()).join();
+
+        assertAll(
+                () -> assertEquals(callsBefore + 1, meterRegistry.timer("filmorate.storage",
+                        "storage", "FilmDbStorage", "method", "getFilm", "exception", "none").count()),
+                () -> assertEquals(1.0, meterRegistry.summary("filmorate.storage.rows",
+                        "storage", "FilmDbStorage", "method", "getFilm").max())
+        );
+    }
+
     @Test
     void updateFilmTest() {
         Film film = Film.builder()
@@ -142,6 +714,41 @@ class FilmControllerTest {
         assertEquals(filmCreated, filmUpdated);
     }
 
+    @Test
+    void updateFilmGenresTest() {
+        HashSet<Genre> genres = new HashSet<>();
+        genres.add(Genre.builder().id(1L).build());
+        genres.add(Genre.builder().id(2L).build());
+
+        Film filmCreated = filmController.createFilm(Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .genres(genres)
+                .build());
+
+        HashSet<Genre> updatedGenres = new HashSet<>();
+        updatedGenres.add(Genre.builder().id(2L).build());
+        updatedGenres.add(Genre.builder().id(3L).build());
+        filmCreated.setGenres(updatedGenres);
+        filmController.updateFilm(filmCreated);
+        Set<Long> genreIdsAfterUpdate = filmController.getFilm(filmCreated.getId(), webRequest()).join().getGenres().stream()
+                .map(Genre::getId)
+                .collect(Collectors.toSet());
+
+        filmCreated.setGenres(new HashSet<>());
+        filmController.updateFilm(filmCreated);
+        Film filmWithoutGenres = filmController.getFilm(filmCreated.getId(), webRequest()).join();
+
+        assertAll(
+                () -> assertEquals(Set.of(2L, 3L), genreIdsAfterUpdate),
+                () -> assertNull(filmWithoutGenres.getGenres())
+        );
+    }
+
     @Test
     void updateWrongFilmTest() {
         Film filmWithWrongId = Film.builder()
@@ -161,6 +768,29 @@ class FilmControllerTest {
         );
     }
 
+    @Test
+    void createFilmWithWrongGenreTest() {
+        HashSet<Genre> genres = new HashSet<>();
+        genres.add(Genre.builder().id(1L).build());
+        genres.add(Genre.builder().id(-1L).build());
+
+        Film film = Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .genres(genres)
+                .build();
+
+        final NotFoundException[] notFoundExceptions = new NotFoundException[1];
+        assertAll(
+                () -> notFoundExceptions[0] = assertThrows(NotFoundException.class, () -> filmController.createFilm(film)),
+                () -> assertEquals("Жанр c id: -1 не существует", notFoundExceptions[0].getMessage(), MessageFormat.format("Проверка сообщения об ошибке для кейса: {0}", "genre id: -1"))
+        );
+    }
+
     @Test
     void addLikeTest() {
         Film film = Film.builder()
@@ -183,8 +813,16 @@ class FilmControllerTest {
 
         User userCreated = userController.createUser(user);
 
-        List<User> userList = filmController.addLike(filmCreated.getId(), userCreated.getId());
-        assertTrue(userList.contains(userCreated));
+        List<User> likers = filmController.addLike(filmCreated.getId(), userCreated.getId());
+        LikeStatus likeStatus = filmController.addLikeStatus(filmCreated.getId(), userCreated.getId());
+        List<User> userList = filmController.getLikes(filmCreated.getId(), null, 100).getItems();
+
+        assertAll(
+                () -> assertEquals(List.of(userCreated), likers),
+                () -> assertTrue(likeStatus.getLiked()),
+                () -> assertEquals(1L, likeStatus.getLikesCount()),
+                () -> assertTrue(userList.contains(userCreated))
+        );
     }
 
     @Test
@@ -210,8 +848,52 @@ class FilmControllerTest {
         User userCreated = userController.createUser(user);
 
         filmController.addLike(filmCreated.getId(), userCreated.getId());
-        List<User> userList = filmController.removeLike(filmCreated.getId(), userCreated.getId());
-        assertFalse(userList.contains(userCreated));
+        List<User> likers = filmController.removeLike(filmCreated.getId(), userCreated.getId());
+        LikeStatus likeStatus = filmController.removeLikeStatus(filmCreated.getId(), userCreated.getId());
+        List<User> userList = filmController.getLikes(filmCreated.getId(), null, 100).getItems();
+
+        assertAll(
+                () -> assertEquals(List.of(), likers),
+                () -> assertFalse(likeStatus.getLiked()),
+                () -> assertEquals(0L, likeStatus.getLikesCount()),
+                () -> assertFalse(userList.contains(userCreated))
+        );
+    }
+
+    @Test
+    void getLikesPageTest() {
+        Film filmCreated = filmController.createFilm(Film.builder()
+                .name(NAME_FIRST)
+                .description(DESCRIPTION_FIRST)
+                .releaseDate(RELEASE_DATE_FIRST)
+                .duration(DURATION_FIRST)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        User firstUser = userController.createUser(User.builder()
+                .email(E_MAIL_FIRST)
+                .login(LOGIN_FIRST)
+                .name(NAME_FIRST)
+                .birthday(BIRTHDAY_FIRST)
+                .build());
+        User secondUser = userController.createUser(User.builder()
+                .email(E_MAIL_FIRST)
+                .login(LOGIN_FIRST)
+                .name(NAME_FIRST)
+                .birthday(BIRTHDAY_FIRST)
+                .build());
+
+        filmController.addLike(filmCreated.getId(), secondUser.getId());
+        filmController.addLike(filmCreated.getId(), firstUser.getId());
+
+        Page<User> firstPage = filmController.getLikes(filmCreated.getId(), null, 1);
+        Page<User> secondPage = filmController.getLikes(filmCreated.getId(), firstPage.getNextCursor(), 1);
+
+        assertAll(
+                () -> assertEquals(List.of(firstUser), firstPage.getItems()),
+                () -> assertEquals(List.of(secondUser), secondPage.getItems()),
+                () -> assertNull(secondPage.getNextCursor())
+        );
     }
 
     @ParameterizedTest
@@ -294,6 +976,30 @@ class FilmControllerTest {
         );
     }
 
+    private double eventsCount(DomainEventType type) {
+        return meterRegistry.counter("filmorate.events", "type", type.name()).count();
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = response.getContentAsString(StandardCharsets.UTF_8);
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString(StandardCharsets.UTF_8);
+        }
+        return content;
+    }
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
+    }
+
+    private static ServletWebRequest webRequest(String eTag) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
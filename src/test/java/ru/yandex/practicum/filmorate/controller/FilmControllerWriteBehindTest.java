@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.PopularFilmsIndex;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.durable-ack=true"
+})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmControllerWriteBehindTest {
+    private final FilmController filmController;
+    private final UserController userController;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private static final String NAME = RandomStringUtils.randomAlphabetic(5);
+    private static final String DESCRIPTION = RandomStringUtils.randomAlphabetic(20);
+    private static final String E_MAIL = RandomStringUtils.randomAlphabetic(10) + "@" + RandomStringUtils.randomAlphabetic(10) + ".com";
+    private static final String LOGIN = RandomStringUtils.randomAlphabetic(10);
+
+    @AfterEach
+    void tearDown() {
+        filmController.getAllFilms().forEach(film -> filmController.deleteFilm(film.getId()));
+        userController.getAllUsers().forEach(user -> userController.deleteUser(user.getId()));
+    }
+
+    @Test
+    void addAndRemoveLikeTest() {
+        Film firstFilm = filmController.createFilm(createFilm());
+        Film secondFilm = filmController.createFilm(createFilm());
+        User user = userController.createUser(User.builder()
+                .email(E_MAIL)
+                .login(LOGIN)
+                .name(NAME)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+
+        filmController.addLike(secondFilm.getId(), user.getId());
+        List<User> likesAfterAdd = filmController.getLikes(secondFilm.getId(), null, 100).getItems();
+        popularFilmsIndex.applyPendingLikes();
+        Long popularAfterAdd = filmController.getPopularFilm(1L, null, null, webRequest()).join().get(0).getId();
+        filmController.removeLike(secondFilm.getId(), user.getId());
+        List<User> likesAfterRemove = filmController.getLikes(secondFilm.getId(), null, 100).getItems();
+        popularFilmsIndex.applyPendingLikes();
+        Long popularAfterRemove = filmController.getPopularFilm(1L, null, null, webRequest()).join().get(0).getId();
+
+        assertAll(
+                () -> assertEquals(List.of(user), likesAfterAdd),
+                () -> assertEquals(secondFilm.getId(), popularAfterAdd),
+                () -> assertEquals(List.of(), likesAfterRemove),
+                () -> assertEquals(firstFilm.getId(), popularAfterRemove)
+        );
+    }
+
+    private Film createFilm() {
+        return Film.builder()
+                .name(NAME)
+                .description(DESCRIPTION)
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(7200L)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build();
+    }
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
+    }
+}
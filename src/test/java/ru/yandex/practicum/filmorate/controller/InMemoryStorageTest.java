@@ -0,0 +1,134 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryDatabase;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "filmorate.storage.type=memory",
+        "filmorate.storage.memory.directory=target/memory-storage/${random.uuid}",
+        "filmorate.storage.memory.fsync=false",
+        "filmorate.storage.memory.snapshot-interval=0"
+})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class InMemoryStorageTest {
+    private final FilmController filmController;
+    private final UserController userController;
+    private final InMemoryDatabase inMemoryDatabase;
+
+    @AfterEach
+    void tearDown() {
+        filmController.getAllFilms().forEach(film -> filmController.deleteFilm(film.getId()));
+        userController.getAllUsers().forEach(user -> userController.deleteUser(user.getId()));
+    }
+
+    @Test
+    void reloadFromJournalAndSnapshotTest() {
+        Film film = filmController.createFilm(Film.builder()
+                .name(RandomStringUtils.randomAlphabetic(10))
+                .description(RandomStringUtils.randomAlphabetic(20))
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(7200L)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .genres(new HashSet<>(Set.of(Genre.builder().id(1L).build(), Genre.builder().id(2L).build())))
+                .build());
+        Film deletedFilm = filmController.createFilm(Film.builder()
+                .name(RandomStringUtils.randomAlphabetic(10))
+                .description(RandomStringUtils.randomAlphabetic(20))
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(7200L)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        User user = userController.createUser(randomUser());
+        User friend = userController.createUser(randomUser());
+        userController.addFriends(user.getId(), friend.getId());
+        filmController.addLike(film.getId(), user.getId());
+        filmController.addLike(film.getId(), friend.getId());
+        filmController.removeLike(film.getId(), friend.getId());
+        filmController.deleteFilm(deletedFilm.getId());
+
+        inMemoryDatabase.load();
+        Film filmFromJournal = filmController.getFilm(film.getId(), webRequest()).join();
+        List<Long> friendIdsFromJournal = userIds(userController.getFriends(user.getId()).join());
+        List<Long> likerIdsFromJournal = userIds(filmController.getLikes(film.getId(), null, 10).getItems());
+
+        inMemoryDatabase.snapshot();
+        inMemoryDatabase.load();
+        Film filmFromSnapshot = filmController.getFilm(film.getId(), webRequest()).join();
+        List<Long> popularIdsFromSnapshot = filmController.getPopularFilm(10L, 2L, 2000, webRequest()).join().stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+        Film nextFilm = filmController.createFilm(Film.builder()
+                .name(RandomStringUtils.randomAlphabetic(10))
+                .description(RandomStringUtils.randomAlphabetic(20))
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(7200L)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        inMemoryDatabase.snapshot();
+        Film filmAfterSnapshot = filmController.createFilm(Film.builder()
+                .name(RandomStringUtils.randomAlphabetic(10))
+                .description(RandomStringUtils.randomAlphabetic(20))
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(7200L)
+                .rate(4L)
+                .mpa(Mpa.builder().id(1L).build())
+                .build());
+        inMemoryDatabase.load();
+        List<Long> filmIdsAfterReload = filmController.getAllFilms().stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+
+        assertAll(
+                () -> assertEquals(film, filmFromJournal),
+                () -> assertTrue(filmIdsAfterReload.containsAll(List.of(nextFilm.getId(), filmAfterSnapshot.getId()))),
+                () -> assertEquals(List.of(friend.getId()), friendIdsFromJournal),
+                () -> assertEquals(List.of(user.getId()), likerIdsFromJournal),
+                () -> assertEquals(film, filmFromSnapshot),
+                () -> assertEquals(List.of(film.getId()), popularIdsFromSnapshot),
+                () -> assertEquals(1L, filmController.getPopularFilm(1L, null, null, webRequest()).join().size()),
+                () -> assertTrue(nextFilm.getId() > deletedFilm.getId())
+        );
+    }
+
+    private static List<Long> userIds(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
+
+    private static User randomUser() {
+        return User.builder()
+                .email(RandomStringUtils.randomAlphabetic(10) + "@" + RandomStringUtils.randomAlphabetic(10) + ".com")
+                .login(RandomStringUtils.randomAlphabetic(10))
+                .name(RandomStringUtils.randomAlphabetic(10))
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
+    }
+}
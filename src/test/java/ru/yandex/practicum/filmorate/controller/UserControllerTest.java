@@ -9,14 +9,27 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,6 +39,7 @@ import static org.junit.jupiter.api.Assertions.*;
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class UserControllerTest {
     private final UserController userController;
+    private final FilmController filmController;
 
     private static final String E_MAIL_FIRST = RandomStringUtils.randomAlphabetic(10) + "@" + RandomStringUtils.randomAlphabetic(10) + ".com";
     private static final String E_MAIL_SECOND = RandomStringUtils.randomAlphabetic(12) + "@" + RandomStringUtils.randomAlphabetic(12) + ".com";
@@ -43,6 +57,7 @@ class UserControllerTest {
 
     @AfterEach
     void tearDown() {
+        filmController.getAllFilms().forEach(film -> filmController.deleteFilm(film.getId()));
         List<User> users = userController.getAllUsers();
         for (User user : users){
             userController.deleteUser(user.getId());
@@ -75,6 +90,41 @@ class UserControllerTest {
     }
 
 
+    @Test
+    void getUsersPageTest() {
+        User firstUser = userController.createUser(User.builder()
+                .email(E_MAIL_FIRST)
+                .login(LOGIN_FIRST)
+                .name(NAME_FIRST)
+                .birthday(BIRTHDAY_FIRST)
+                .build());
+        User secondUser = userController.createUser(User.builder()
+                .email(E_MAIL_SECOND)
+                .login(LOGIN_SECOND)
+                .name(NAME_SECOND)
+                .birthday(BIRTHDAY_SECOND)
+                .build());
+
+        Page<User> firstPage = userController.getUsersPage(null, 1);
+        Page<User> secondPage = userController.getUsersPage(firstPage.getNextCursor(), 1);
+
+        assertAll(
+                () -> assertEquals(List.of(firstUser), firstPage.getItems()),
+                () -> assertEquals(firstUser.getId(), firstPage.getNextCursor()),
+                () -> assertEquals(List.of(secondUser), secondPage.getItems()),
+                () -> assertNull(secondPage.getNextCursor())
+        );
+    }
+
+    @Test
+    void getUsersPageWithWrongLimitTest() {
+        final ValidationException[] validationException = new ValidationException[1];
+        assertAll(
+                () -> validationException[0] = assertThrows(ValidationException.class, () -> userController.getUsersPage(null, 0)),
+                () -> assertEquals("Размер страницы должен быть от 1 до 1000", validationException[0].getMessage())
+        );
+    }
+
     @Test
     void createUserTest() {
         User expectedUser = User.builder()
@@ -100,11 +150,45 @@ class UserControllerTest {
 
         User createdUser = userController.createUser(user);
 
-        User actualUser = userController.getUser(createdUser.getId()).get();
+        User actualUser = userController.getUser(createdUser.getId(), webRequest()).join();
 
         assertEquals(createdUser, actualUser);
     }
 
+    @Test
+    void importUsersAndFriendshipsTest() throws IOException {
+        String users = String.join("\n",
+                "{\"email\":\"first@mail.ru\",\"login\":\"first\",\"birthday\":\"1990-01-01\"}",
+                "{\"email\":\"second@mail.ru\",\"login\":\"second\",\"name\":\"Второй\",\"birthday\":\"1991-01-01\"}",
+                "{\"email\":\"no-at-sign\",\"login\":\"third\",\"birthday\":\"1992-01-01\"}");
+
+        ImportReport usersReport = userController.importUsers(
+                new ByteArrayInputStream(users.getBytes(StandardCharsets.UTF_8)));
+        List<User> importedUsers = userController.getAllUsers();
+        long firstId = importedUsers.get(0).getId();
+        long secondId = importedUsers.get(1).getId();
+        String friendships = String.join("\n",
+                "{\"userId\":" + firstId + ",\"friendId\":" + secondId + "}",
+                "{\"userId\":" + firstId + ",\"friendId\":" + secondId + "}",
+                "{\"userId\":" + firstId + ",\"friendId\":" + firstId + "}",
+                "{\"userId\":" + firstId + ",\"friendId\":-1}",
+                "null");
+        ImportReport friendshipsReport = userController.importFriendships(
+                new ByteArrayInputStream(friendships.getBytes(StandardCharsets.UTF_8)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userController.streamFriendships().writeTo(out);
+
+        assertAll(
+                () -> assertEquals(2, usersReport.getImported()),
+                () -> assertEquals(3L, usersReport.getErrors().get(0).getLine()),
+                () -> assertEquals("first", importedUsers.get(0).getName()),
+                () -> assertEquals(2, friendshipsReport.getImported()),
+                () -> assertEquals(3, friendshipsReport.getFailed()),
+                () -> assertEquals(List.of(importedUsers.get(1)), userController.getFriends(firstId).join()),
+                () -> assertEquals(1, out.toString(StandardCharsets.UTF_8).split("\n").length)
+        );
+    }
+
     @Test
     void addFriendsTest() {
         User user = User.builder()
@@ -126,11 +210,19 @@ class UserControllerTest {
         User expectedFriend = userController.createUser(friendUser);
 
         userController.addFriends(createdUser.getId(), expectedFriend.getId());
-        List<User> friends = userController.getFriends(createdUser.getId());
+        List<User> friends = userController.getFriends(createdUser.getId()).join();
 
         assertTrue(friends.contains(expectedFriend));
     }
 
+    @Test
+    void getFriendsOfUnknownUserTest() {
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> userController.getFriends(-1L).join());
+
+        assertInstanceOf(NotFoundException.class, exception.getCause());
+    }
+
 
     @Test
     void removeFriendsTest() {
@@ -155,7 +247,7 @@ class UserControllerTest {
         userController.addFriends(createdUser.getId(), expectedFriend.getId());
         userController.removeFriends(createdUser.getId(), expectedFriend.getId());
 
-        List<User> friends = userController.getFriends(createdUser.getId());
+        List<User> friends = userController.getFriends(createdUser.getId()).join();
 
         assertFalse(friends.contains(expectedFriend));
     }
@@ -195,11 +287,110 @@ class UserControllerTest {
         userController.addFriends(commonFriendCreatedUser.getId(), friendCreatedUser.getId());
         userController.addFriends(friendCreatedUser.getId(), commonFriendCreatedUser.getId());
 
-        List<User> friends = userController.getCommonFriends(createdUser.getId(), friendCreatedUser.getId());
+        List<User> friends = userController.getCommonFriends(createdUser.getId(), friendCreatedUser.getId()).join();
 
         assertTrue(friends.contains(commonFriendCreatedUser));
     }
 
+    @Test
+    void deleteFriendUserTest() {
+        User createdUser = userController.createUser(User.builder()
+                .email(E_MAIL_FIRST)
+                .login(LOGIN_FIRST)
+                .name(NAME_FIRST)
+                .birthday(BIRTHDAY_FIRST)
+                .build());
+        User friendCreatedUser = userController.createUser(User.builder()
+                .email(E_MAIL_SECOND)
+                .login(LOGIN_SECOND)
+                .name(NAME_SECOND)
+                .birthday(BIRTHDAY_SECOND)
+                .build());
+        User commonFriendCreatedUser = userController.createUser(User.builder()
+                .email(E_MAIL_COMMON)
+                .login(LOGIN_COMMON)
+                .name(NAME_COMMON)
+                .birthday(BIRTHDAY_COMMON)
+                .build());
+
+        userController.addFriends(createdUser.getId(), friendCreatedUser.getId());
+        userController.addFriends(createdUser.getId(), commonFriendCreatedUser.getId());
+        userController.addFriends(friendCreatedUser.getId(), commonFriendCreatedUser.getId());
+        assertEquals(List.of(commonFriendCreatedUser),
+                userController.getCommonFriends(createdUser.getId(), friendCreatedUser.getId()).join());
+
+        userController.deleteUser(commonFriendCreatedUser.getId());
+
+        assertEquals(List.of(friendCreatedUser), userController.getFriends(createdUser.getId()).join());
+        assertTrue(userController.getCommonFriends(createdUser.getId(), friendCreatedUser.getId()).join().isEmpty());
+    }
+
+    @Test
+    void getFriendRecommendationsTest() {
+        User user = userController.createUser(randomUser());
+        User firstFriend = userController.createUser(randomUser());
+        User secondFriend = userController.createUser(randomUser());
+        User strongCandidate = userController.createUser(randomUser());
+        User weakCandidate = userController.createUser(randomUser());
+
+        userController.addFriends(user.getId(), firstFriend.getId());
+        userController.addFriends(user.getId(), secondFriend.getId());
+        userController.addFriends(firstFriend.getId(), user.getId());
+        userController.addFriends(firstFriend.getId(), strongCandidate.getId());
+        userController.addFriends(secondFriend.getId(), firstFriend.getId());
+        userController.addFriends(secondFriend.getId(), strongCandidate.getId());
+        userController.addFriends(secondFriend.getId(), weakCandidate.getId());
+
+        assertEquals(List.of(strongCandidate, weakCandidate), userController.getFriendRecommendations(user.getId(), 10));
+        assertEquals(List.of(strongCandidate), userController.getFriendRecommendations(user.getId(), 1));
+
+        userController.addFriends(user.getId(), strongCandidate.getId());
+
+        assertEquals(List.of(weakCandidate), userController.getFriendRecommendations(user.getId(), 10));
+        assertThrows(ValidationException.class, () -> userController.getFriendRecommendations(user.getId(), 0));
+    }
+
+    @Test
+    void getRecommendationsTest() {
+        List<Film> films = Stream.generate(() -> filmController.createFilm(Film.builder()
+                        .name(NAME_FIRST)
+                        .description(NAME_SECOND)
+                        .releaseDate(LocalDate.of(2000, 1, 1))
+                        .duration(7200L)
+                        .rate(4L)
+                        .mpa(Mpa.builder().id(1L).build())
+                        .build()))
+                .limit(4)
+                .collect(Collectors.toList());
+        List<User> users = Stream.generate(() -> userController.createUser(randomUser()))
+                .limit(3)
+                .collect(Collectors.toList());
+
+        filmController.addLike(films.get(0).getId(), users.get(0).getId());
+        filmController.addLike(films.get(1).getId(), users.get(0).getId());
+        filmController.addLike(films.get(0).getId(), users.get(1).getId());
+        filmController.addLike(films.get(1).getId(), users.get(1).getId());
+        filmController.addLike(films.get(2).getId(), users.get(1).getId());
+        filmController.addLike(films.get(0).getId(), users.get(2).getId());
+        filmController.addLike(films.get(3).getId(), users.get(2).getId());
+
+        List<Long> recommendedFilmIds = userController.getRecommendations(users.get(0).getId(), 10).stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+
+        filmController.addLike(films.get(2).getId(), users.get(0).getId());
+
+        List<Long> recommendedFilmIdsAfterLike = userController.getRecommendations(users.get(0).getId(), 10).stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+
+        assertAll(
+                () -> assertEquals(List.of(films.get(2).getId(), films.get(3).getId()), recommendedFilmIds),
+                () -> assertEquals(List.of(films.get(3).getId()), recommendedFilmIdsAfterLike),
+                () -> assertThrows(ValidationException.class, () -> userController.getRecommendations(users.get(0).getId(), 0))
+        );
+    }
+
     @Test
     void getCommonFriendsEmptyTest() {
         User user = User.builder()
@@ -229,7 +420,7 @@ class UserControllerTest {
 
         User commonFriendCreated = userController.createUser(commonFriend);
 
-        List<User> friends = userController.getCommonFriends(userCreated.getId(), friendCreated.getId());
+        List<User> friends = userController.getCommonFriends(userCreated.getId(), friendCreated.getId()).join();
 
         assertFalse(friends.contains(commonFriendCreated));
     }
@@ -284,6 +475,24 @@ class UserControllerTest {
         );
     }
 
+    @Test
+    void addWrongFriendTest() {
+        User user = User.builder()
+                .email(E_MAIL_FIRST)
+                .login(LOGIN_FIRST)
+                .name(NAME_FIRST)
+                .birthday(BIRTHDAY_FIRST)
+                .build();
+
+        User createdUser = userController.createUser(user);
+
+        final NotFoundException[] notFoundExceptions = new NotFoundException[1];
+        assertAll(
+                () -> notFoundExceptions[0] = assertThrows(NotFoundException.class, () -> userController.addFriends(createdUser.getId(), -1L)),
+                () -> assertEquals("Пользователь c id: -1 не существует", notFoundExceptions[0].getMessage(), MessageFormat.format("Проверка сообщения об ошибке для кейса: {0}", "friend id: -1"))
+        );
+    }
+
     @ParameterizedTest
     @MethodSource("testDataProvider")
     void validateUserTest(TestData testData) {
@@ -354,6 +563,19 @@ class UserControllerTest {
         );
     }
 
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
+    }
+
+    private static User randomUser() {
+        return User.builder()
+                .email(RandomStringUtils.randomAlphabetic(10) + "@" + RandomStringUtils.randomAlphabetic(10) + ".com")
+                .login(RandomStringUtils.randomAlphabetic(10))
+                .name(RandomStringUtils.randomAlphabetic(10))
+                .birthday(BIRTHDAY_FIRST)
+                .build();
+    }
+
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
@@ -0,0 +1,164 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.config.DomainEventProperties;
+import ru.yandex.practicum.filmorate.model.DomainEvent;
+import ru.yandex.practicum.filmorate.model.DomainEventType;
+import ru.yandex.practicum.filmorate.storage.DomainEventOutbox;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainEventBusTest {
+    private final List<DomainEventBus> buses = new ArrayList<>();
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private DomainEventProperties properties;
+    private DomainEventOutbox outbox;
+    private List<Long> eventIds;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        properties = new DomainEventProperties();
+        properties.setPartitions(2);
+        properties.setMaxAttempts(2);
+        properties.setPollInterval(Duration.ofDays(1));
+        outbox = new DomainEventOutbox(jdbcTemplate, new NamedParameterJdbcTemplate(database), properties);
+        outbox.append(DomainEventType.FILM_UPDATED, 1L, null);
+        outbox.append(DomainEventType.FILM_UPDATED, 2L, null);
+        outbox.append(DomainEventType.FILM_DELETED, 1L, null);
+        eventIds = outbox.getEvents(10).stream().map(DomainEvent::getId).collect(Collectors.toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        buses.forEach(DomainEventBus::stop);
+        database.shutdown();
+    }
+
+    @Test
+    void retryOnlyFailedEventTest() {
+        RecordingConsumer recording = new RecordingConsumer();
+        FailingConsumer flaky = new FailingConsumer(1L, 2);
+        DomainEventBus bus = start(List.of(recording, flaky));
+
+        bus.dispatch();
+        List<Long> pendingAfterFailure = getOutboxIds();
+        bus.dispatch();
+
+        assertAll(
+                () -> assertEquals(List.of(eventIds.get(0), eventIds.get(2)), pendingAfterFailure),
+                () -> assertEquals(eventIds, sorted(recording.ids)),
+                () -> assertEquals(List.of(eventIds.get(1), eventIds.get(0), eventIds.get(2)), flaky.ids),
+                () -> assertTrue(getOutboxIds().isEmpty()),
+                () -> assertTrue(getDeadLetterIds().isEmpty())
+        );
+    }
+
+    @Test
+    void moveFailingEventToDeadLetterTest() {
+        RecordingConsumer recording = new RecordingConsumer();
+        FailingConsumer broken = new FailingConsumer(1L, Integer.MAX_VALUE);
+        DomainEventBus bus = start(List.of(recording, broken));
+
+        bus.dispatch();
+        bus.dispatch();
+        List<Long> pendingAfterSkip = getOutboxIds();
+        bus.dispatch();
+
+        assertAll(
+                () -> assertEquals(List.of(eventIds.get(2)), pendingAfterSkip),
+                () -> assertEquals(eventIds, sorted(recording.ids)),
+                () -> assertEquals(List.of(eventIds.get(1)), broken.ids),
+                () -> assertTrue(getOutboxIds().isEmpty()),
+                () -> assertEquals(List.of(eventIds.get(0), eventIds.get(2)), getDeadLetterIds()),
+                () -> assertEquals(List.of("FailingConsumer"), jdbcTemplate.queryForList(
+                        "SELECT DISTINCT consumer FROM OUTBOX_DEAD_LETTER", String.class))
+        );
+    }
+
+    @Test
+    void replayAfterRestartTest() {
+        properties.setMaxAttempts(10);
+        DomainEventBus stopped = start(List.of(new FailingConsumer(1L, Integer.MAX_VALUE)));
+        stopped.dispatch();
+        stopped.stop();
+        buses.remove(stopped);
+        List<Long> pendingAfterStop = getOutboxIds();
+
+        RecordingConsumer recording = new RecordingConsumer();
+        start(List.of(recording)).dispatch();
+
+        assertAll(
+                () -> assertEquals(List.of(eventIds.get(0), eventIds.get(2)), pendingAfterStop),
+                () -> assertEquals(List.of(eventIds.get(0), eventIds.get(2)), sorted(recording.ids)),
+                () -> assertTrue(getOutboxIds().isEmpty())
+        );
+    }
+
+    private DomainEventBus start(List<DomainEventConsumer> consumers) {
+        DomainEventBus bus = new DomainEventBus(outbox, consumers, properties);
+        bus.start();
+        buses.add(bus);
+        return bus;
+    }
+
+    private List<Long> getOutboxIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM OUTBOX ORDER BY id", Long.class);
+    }
+
+    private List<Long> getDeadLetterIds() {
+        return jdbcTemplate.queryForList("SELECT event_id FROM OUTBOX_DEAD_LETTER ORDER BY event_id", Long.class);
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        return ids.stream().sorted().collect(Collectors.toList());
+    }
+
+    private static class RecordingConsumer implements DomainEventConsumer {
+        final List<Long> ids = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void accept(List<DomainEvent> events) {
+            events.forEach(event -> ids.add(event.getId()));
+        }
+    }
+
+    private static class FailingConsumer extends RecordingConsumer {
+        private final Long entityId;
+        private final AtomicInteger failures;
+
+        private FailingConsumer(Long entityId, int failures) {
+            this.entityId = entityId;
+            this.failures = new AtomicInteger(failures);
+        }
+
+        @Override
+        public void accept(List<DomainEvent> events) {
+            if (events.stream().anyMatch(event -> entityId.equals(event.getEntityId()))
+                    && failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("Подписчик недоступен");
+            }
+            super.accept(events);
+        }
+    }
+}
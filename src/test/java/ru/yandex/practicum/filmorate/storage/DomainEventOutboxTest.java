@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.config.DomainEventProperties;
+import ru.yandex.practicum.filmorate.model.DomainEvent;
+import ru.yandex.practicum.filmorate.model.DomainEventType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainEventOutboxTest {
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private DomainEventProperties properties;
+    private DomainEventOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        properties = new DomainEventProperties();
+        outbox = new DomainEventOutbox(jdbcTemplate, new NamedParameterJdbcTemplate(database), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void appendAndDeleteEventsTest() {
+        outbox.append(DomainEventType.FILM_UPDATED, 1L, null);
+        outbox.appendAll(List.of(
+                DomainEvent.builder().type(DomainEventType.LIKE_ADDED).entityId(1L).relatedId(2L).build(),
+                DomainEvent.builder().type(DomainEventType.USER_DELETED).entityId(3L).build()));
+        List<DomainEvent> events = outbox.getEvents(10);
+
+        outbox.deleteEvents(List.of(events.get(0).getId()));
+        List<DomainEvent> remaining = outbox.getEvents(10);
+
+        assertAll(
+                () -> assertEquals(List.of(DomainEventType.FILM_UPDATED, DomainEventType.LIKE_ADDED,
+                        DomainEventType.USER_DELETED), types(events)),
+                () -> assertEquals(2L, events.get(1).getRelatedId()),
+                () -> assertNull(events.get(2).getRelatedId()),
+                () -> assertEquals(1, outbox.getEvents(1).size()),
+                () -> assertEquals(List.of(DomainEventType.LIKE_ADDED, DomainEventType.USER_DELETED), types(remaining))
+        );
+    }
+
+    @Test
+    void skipEventsWhenDisabledTest() {
+        properties.setEnabled(false);
+
+        outbox.append(DomainEventType.FILM_UPDATED, 1L, null);
+
+        assertTrue(outbox.getEvents(10).isEmpty());
+    }
+
+    @Test
+    void addDeadLetterTest() {
+        outbox.append(DomainEventType.LIKE_REMOVED, 1L, 2L);
+        DomainEvent event = outbox.getEvents(1).get(0);
+
+        outbox.addDeadLetter(event, "FilmRecommendationsRefresher", "x".repeat(2000));
+        Map<String, Object> deadLetter = jdbcTemplate.queryForMap("SELECT event_id, event_type, related_id, consumer, " +
+                "LENGTH(error) AS error_length FROM OUTBOX_DEAD_LETTER");
+
+        assertAll(
+                () -> assertEquals(event.getId(), ((Number) deadLetter.get("EVENT_ID")).longValue()),
+                () -> assertEquals("LIKE_REMOVED", deadLetter.get("EVENT_TYPE")),
+                () -> assertEquals(2L, ((Number) deadLetter.get("RELATED_ID")).longValue()),
+                () -> assertEquals("FilmRecommendationsRefresher", deadLetter.get("CONSUMER")),
+                () -> assertEquals(1000L, ((Number) deadLetter.get("ERROR_LENGTH")).longValue())
+        );
+    }
+
+    private static List<DomainEventType> types(List<DomainEvent> events) {
+        return events.stream().map(DomainEvent::getType).collect(Collectors.toList());
+    }
+}
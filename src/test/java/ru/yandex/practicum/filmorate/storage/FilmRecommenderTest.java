@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.config.FilmRecommendationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilmRecommenderTest {
+    private LikesIndex likesIndex;
+    private FilmRecommender recommender;
+
+    @BeforeEach
+    void setUp() {
+        likesIndex = new LikesIndex();
+        likesIndex.addLike(1L, 1L);
+        likesIndex.addLike(1L, 2L);
+        likesIndex.addLike(2L, 2L);
+        likesIndex.addLike(3L, 2L);
+        FilmRecommendationProperties properties = new FilmRecommendationProperties();
+        properties.setPrecomputeEnabled(true);
+        properties.setHeavyUserLikes(1);
+        properties.setPrecomputeInterval(Duration.ofDays(1));
+        recommender = new FilmRecommender(likesIndex, properties);
+        recommender.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recommender.stop();
+    }
+
+    @Test
+    void recommendAfterInvalidateTest() {
+        recommender.precompute();
+        long[] precomputed = recommender.recommend(1L, 10);
+
+        likesIndex.addLike(2L, 1L);
+        recommender.invalidate(1L);
+        long[] afterLike = recommender.recommend(1L, 10);
+
+        recommender.refresh(List.of(1L));
+        long[] refreshed = recommender.recommend(1L, 10);
+
+        assertAll(
+                () -> assertArrayEquals(new long[]{2L, 3L}, precomputed),
+                () -> assertArrayEquals(new long[]{3L}, afterLike),
+                () -> assertArrayEquals(new long[]{3L}, refreshed)
+        );
+    }
+}
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.config.LikeCountersProperties;
+import ru.yandex.practicum.filmorate.model.SearchField;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilmSearchIndexTest {
+    private static final Set<SearchField> ALL_FIELDS = Set.of(SearchField.TITLE, SearchField.DESCRIPTION);
+
+    private FilmSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FilmSearchIndex(new PopularFilmsIndex(new LikeCounters(), new LikeCountersProperties()));
+    }
+
+    @Test
+    void searchCyrillicTest() {
+        index.putFilm(1L, "Ирония судьбы", "Новогодняя комедия");
+        index.putFilm(2L, "Сталкер", "Фантастическая притча");
+
+        assertAll(
+                () -> assertArrayEquals(new long[]{1L}, index.search("ИРОНИЯ", ALL_FIELDS, 0, 10)),
+                () -> assertArrayEquals(new long[]{1L}, index.search("новогод", ALL_FIELDS, 0, 10)),
+                () -> assertArrayEquals(new long[]{2L}, index.search("сталкер притча", ALL_FIELDS, 0, 10)),
+                () -> assertArrayEquals(new long[0], index.search("ирония притча", ALL_FIELDS, 0, 10))
+        );
+    }
+
+    @Test
+    void searchIgnoresYoTest() {
+        index.putFilm(1L, "Ёлки", "Ещё одна история");
+        index.putFilm(2L, "Елки-палки", "Всё по-другому");
+
+        assertAll(
+                () -> assertArrayEquals(new long[]{1L, 2L}, sorted(index.search("ёлки", ALL_FIELDS, 0, 10))),
+                () -> assertArrayEquals(new long[]{1L, 2L}, sorted(index.search("елки", ALL_FIELDS, 0, 10))),
+                () -> assertArrayEquals(new long[]{1L}, index.search("еще", ALL_FIELDS, 0, 10)),
+                () -> assertArrayEquals(new long[]{2L}, index.search("ВСЕ", ALL_FIELDS, 0, 10))
+        );
+    }
+
+    @Test
+    void expandPrefixToMostFrequentTermsTest() {
+        LongStream.rangeClosed(1, 60).forEach(id ->
+                index.putFilm(id, "фильм" + (char) ('а' + id / 30) + (char) ('а' + id % 30), null));
+        LongStream.rangeClosed(61, 65).forEach(id -> index.putFilm(id, "фильмяяя", null));
+
+        long[] found = index.search("фильм", Set.of(SearchField.TITLE), 0, 100);
+
+        assertAll(
+                () -> assertEquals(54, found.length),
+                () -> assertTrue(LongStream.of(found).boxed().collect(Collectors.toSet())
+                        .containsAll(Set.of(61L, 62L, 63L, 64L, 65L)))
+        );
+    }
+
+    @Test
+    void replaceFilmTest() {
+        index.putFilm(1L, "Старое название", null);
+        index.putFilm(1L, "Новое название", null);
+
+        assertAll(
+                () -> assertArrayEquals(new long[0], index.search("старое", ALL_FIELDS, 0, 10)),
+                () -> assertArrayEquals(new long[]{1L}, index.search("новое", ALL_FIELDS, 0, 10))
+        );
+    }
+
+    private static long[] sorted(long[] ids) {
+        return LongStream.of(ids).sorted().toArray();
+    }
+}
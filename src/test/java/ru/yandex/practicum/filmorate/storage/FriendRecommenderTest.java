@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.config.FriendRecommendationProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FriendRecommenderTest {
+    private FriendsGraph friendsGraph;
+    private FriendRecommendationProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        friendsGraph = new FriendsGraph();
+        friendsGraph.rebuild(Map.of(
+                1L, List.of(2L, 3L),
+                2L, List.of(4L),
+                3L, List.of(4L, 5L)));
+        properties = new FriendRecommendationProperties();
+    }
+
+    @Test
+    void recommendByMutualFriendsTest() {
+        FriendRecommender recommender = new FriendRecommender(friendsGraph, properties);
+
+        assertArrayEquals(new long[]{4L, 5L}, recommender.recommend(1L, 10));
+    }
+
+    @Test
+    void doNotCacheRankingInvalidatedWhileRankingTest() {
+        AtomicBoolean invalidated = new AtomicBoolean();
+        AtomicReference<FriendRecommender> recommender = new AtomicReference<>();
+        FriendsGraph changingGraph = new FriendsGraph() {
+            @Override
+            public long[] getFriends(Long userId) {
+                long[] friends = super.getFriends(userId);
+                if (userId == 2L && invalidated.compareAndSet(false, true)) {
+                    addFriend(2L, 5L);
+                    recommender.get().invalidate(2L);
+                }
+                return friends;
+            }
+        };
+        changingGraph.rebuild(Map.of(1L, List.of(2L), 2L, List.of(4L)));
+        recommender.set(new FriendRecommender(changingGraph, properties));
+
+        long[] stale = recommender.get().recommend(1L, 10);
+        long[] fresh = recommender.get().recommend(1L, 10);
+
+        assertAll(
+                () -> assertArrayEquals(new long[]{4L}, stale),
+                () -> assertArrayEquals(new long[]{4L, 5L}, fresh)
+        );
+    }
+
+    @Test
+    void doNotCachePartialRankingTest() {
+        properties.setTimeBudget(Duration.ZERO);
+        FriendRecommender recommender = new FriendRecommender(friendsGraph, properties);
+        long[] partial = recommender.recommend(1L, 10);
+
+        properties.setTimeBudget(Duration.ofSeconds(10));
+        long[] complete = recommender.recommend(1L, 10);
+
+        assertAll(
+                () -> assertArrayEquals(new long[0], partial),
+                () -> assertArrayEquals(new long[]{4L, 5L}, complete)
+        );
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LikeCountersTest {
+    private LikeCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new LikeCounters();
+        counters.reset(Map.of(1L, 5L, 2L, 0L));
+    }
+
+    @Test
+    void concurrentLikesTest() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        IntStream.range(0, 10000).forEach(i -> executor.execute(() -> counters.add(1L, 1L)));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertAll(
+                () -> assertEquals(10005L, counters.get(1L)),
+                () -> assertEquals(Map.of(1L, 10005L), counters.drainRanking()),
+                () -> assertEquals(Map.of(1L, 10005L), counters.drainStore()),
+                () -> assertFalse(counters.hasPendingRanking())
+        );
+    }
+
+    @Test
+    void drainPendingFilmsTest() {
+        counters.add(2L, 1L);
+        counters.add(2L, 1L);
+        counters.add(3L, 1L);
+        Map<Long, Long> ranking = counters.drainRanking();
+        counters.add(2L, -1L);
+
+        assertAll(
+                () -> assertEquals(Map.of(2L, 2L), ranking),
+                () -> assertEquals(Map.of(2L, 1L), counters.drainRanking()),
+                () -> assertEquals(Map.of(2L, 1L), counters.drainStore()),
+                () -> assertEquals(Map.of(), counters.drainStore()),
+                () -> assertEquals(0L, counters.get(3L))
+        );
+    }
+}
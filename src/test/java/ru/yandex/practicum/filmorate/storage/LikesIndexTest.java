@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LikesIndexTest {
+    @Test
+    void returnCopiesOfIndexArraysTest() {
+        LikesIndex likesIndex = new LikesIndex();
+        likesIndex.addLike(1L, 1L);
+        likesIndex.addLike(1L, 2L);
+        likesIndex.addLike(2L, 2L);
+
+        likesIndex.getLikers(1L)[0] = 42L;
+        likesIndex.getLikedFilms(2L)[0] = 42L;
+
+        assertAll(
+                () -> assertArrayEquals(new long[]{1L, 2L}, likesIndex.getLikers(1L)),
+                () -> assertArrayEquals(new long[]{1L, 2L}, likesIndex.getLikedFilms(2L)),
+                () -> assertTrue(likesIndex.hasLike(1L, 1L)),
+                () -> assertEquals(2, likesIndex.countLikers(1L))
+        );
+    }
+}
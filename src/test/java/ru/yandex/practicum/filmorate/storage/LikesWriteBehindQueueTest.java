@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.config.LikesWriteBehindProperties;
+import ru.yandex.practicum.filmorate.exception.TooManyRequestsException;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LikesWriteBehindQueueTest {
+    private static final Like FIRST_LIKE = Like.builder().filmId(1L).userId(1L).build();
+    private static final Like SECOND_LIKE = Like.builder().filmId(1L).userId(2L).build();
+
+    private LikesWriteBehindQueue queue;
+    private final List<Like> writtenAdded = new ArrayList<>();
+    private final List<Like> writtenRemoved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        LikesWriteBehindProperties properties = new LikesWriteBehindProperties();
+        properties.setQueueCapacity(1);
+        properties.setOfferTimeout(Duration.ZERO);
+        queue = new LikesWriteBehindQueue(properties);
+        queue.setWriter((added, removed) -> {
+            writtenAdded.addAll(added);
+            writtenRemoved.addAll(removed);
+            return List.of();
+        });
+    }
+
+    @Test
+    void coalesceLikesTest() {
+        CompletableFuture<Void> firstAck = queue.submit(FIRST_LIKE, true);
+        CompletableFuture<Void> secondAck = queue.submit(FIRST_LIKE, false);
+
+        queue.flush();
+
+        assertAll(
+                () -> assertEquals(List.of(), writtenAdded),
+                () -> assertEquals(List.of(FIRST_LIKE), writtenRemoved),
+                () -> assertTrue(firstAck.isDone()),
+                () -> assertTrue(secondAck.isDone())
+        );
+    }
+
+    @Test
+    void rejectWhenQueueIsFullTest() {
+        queue.submit(FIRST_LIKE, true);
+
+        assertThrows(TooManyRequestsException.class, () -> queue.submit(SECOND_LIKE, true));
+
+        queue.flush();
+        queue.submit(SECOND_LIKE, true);
+        queue.flush();
+
+        assertEquals(List.of(FIRST_LIKE, SECOND_LIKE), writtenAdded);
+    }
+
+    @Test
+    void failAcksWhenWriteFailsTest() {
+        queue.setWriter((added, removed) -> {
+            throw new IllegalStateException("write failed");
+        });
+
+        CompletableFuture<Void> ack = queue.submit(FIRST_LIKE, true);
+        queue.flush();
+
+        assertTrue(ack.isCompletedExceptionally());
+    }
+
+    @Test
+    void failOnlyRejectedAcksTest() {
+        LikesWriteBehindProperties properties = new LikesWriteBehindProperties();
+        queue = new LikesWriteBehindQueue(properties);
+        queue.setWriter((added, removed) -> List.of(SECOND_LIKE));
+
+        CompletableFuture<Void> firstAck = queue.submit(FIRST_LIKE, true);
+        CompletableFuture<Void> secondAck = queue.submit(SECOND_LIKE, true);
+        queue.flush();
+
+        assertAll(
+                () -> assertTrue(firstAck.isDone()),
+                () -> assertFalse(firstAck.isCompletedExceptionally()),
+                () -> assertThrows(CompletionException.class, secondAck::join)
+        );
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.config.LikeCountersProperties;
+import ru.yandex.practicum.filmorate.model.PopularFilmIds;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopularFilmsIndexTest {
+    private PopularFilmsIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PopularFilmsIndex(new LikeCounters(), new LikeCountersProperties());
+        index.rebuild(Map.of(1L, 2L, 2L, 1L), Map.of(1L, 2000, 2L, 2001), Map.of());
+    }
+
+    @Test
+    void versionFollowsAppliedRankingTest() {
+        long initial = index.getVersion();
+
+        index.changeLikes(2L, 5L);
+        PopularFilmIds pending = index.getRanking(2, null, null);
+        index.applyPendingLikes();
+        PopularFilmIds applied = index.getRanking(2, null, null);
+
+        assertAll(
+                () -> assertEquals(List.of(1L, 2L), pending.getIds()),
+                () -> assertEquals(initial, pending.getVersion()),
+                () -> assertEquals(6L, index.getLikes(2L)),
+                () -> assertEquals(List.of(2L, 1L), applied.getIds()),
+                () -> assertTrue(applied.getVersion() > initial),
+                () -> assertEquals(applied.getVersion(), index.getVersion())
+        );
+    }
+}